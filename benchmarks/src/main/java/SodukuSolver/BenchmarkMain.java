@@ -0,0 +1,24 @@
+package main.java.SodukuSolver;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler (-prof gc) turned on, so every result also shows how many bytes
+ * was allocated per operation.
+ * <pre>
+ * usage: java -jar target/benchmarks.jar [regexp of benchmarks to run]...
+ * </pre>
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder().addProfiler(GCProfiler.class);
+        for (String include : args) {
+            options.include(include);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,48 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.SodukuLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full solve() of every board in SodukuLoader
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolveBenchmark {
+
+    @Param({"easy_1", "vhard_1", "vhard_2", "\"the most difficult\"", "No solution", "Multiple solutions"})
+    public String board;
+
+    private int[][] original;
+    private SodukuSolver solver;
+
+    @Setup
+    public void setup() {
+        original = SodukuLoader.loadSoduku(board);
+        solver = new SodukuSolver();
+    }
+
+    @Benchmark
+    public SodukuSolver.SolveResults solve() throws Exception {
+        // setPlayfield copies the board, so original is never changed by the solve
+        solver.setPlayfield(original);
+        solver.solve();
+        return solver.getSolveResult();
+    }
+}
@@ -0,0 +1,107 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+import main.java.SodukuUtils.SodukuLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the solving techniques of SodukuSolver one at a time. Every board is brought into a fixed mid-solve state
+ * (the given numbers placed and one pass of hidden singles made) that every invocation starts from, restoring that
+ * state is measured by restoreOnly so it can be subtracted from the other results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TechniqueBenchmark {
+
+    @Param({"easy_1", "vhard_1", "vhard_2", "\"the most difficult\"", "Multiple solutions"})
+    public String board;
+
+    private final HiddenSingles hiddenSingles = new HiddenSingles();
+    private final LockedCandidates lockedCandidates = new LockedCandidates();
+    private final NakedPairs nakedPairs = new NakedPairs();
+    private final HiddenPairs hiddenPairs = new HiddenPairs();
+    private final NakedSubsets nakedQuads = new NakedSubsets(4);
+    private final HiddenSubsets hiddenQuads = new HiddenSubsets(4);
+    private final Fish xWing = new Fish(2);
+    private final Fish swordfish = new Fish(3);
+    private PossibilityGrid possibilities;
+    private final PossibilityGrid midSolve = new PossibilityGrid();
+
+    @Setup
+    public void setup() throws Exception {
+        SodukuSolver solver = new SodukuSolver(SodukuLoader.loadSoduku(board));
+        possibilities = solver.loadPossibilities();
+        hiddenSingles.apply(possibilities);
+        midSolve.copyFrom(possibilities);
+    }
+
+    @Benchmark
+    public PossibilityGrid restoreOnly() {
+        possibilities.copyFrom(midSolve);
+        return possibilities;
+    }
+
+    @Benchmark
+    public int singlePossible() {
+        possibilities.copyFrom(midSolve);
+        return hiddenSingles.placeSingles(possibilities, -1);
+    }
+
+    @Benchmark
+    public boolean lockedPossibilities() {
+        possibilities.copyFrom(midSolve);
+        return lockedCandidates.apply(possibilities);
+    }
+
+    @Benchmark
+    public boolean nakedPairs() {
+        possibilities.copyFrom(midSolve);
+        return nakedPairs.apply(possibilities);
+    }
+
+    @Benchmark
+    public boolean hiddenPairs() {
+        possibilities.copyFrom(midSolve);
+        return hiddenPairs.apply(possibilities);
+    }
+
+    @Benchmark
+    public boolean nakedQuads() {
+        possibilities.copyFrom(midSolve);
+        return nakedQuads.apply(possibilities);
+    }
+
+    @Benchmark
+    public boolean hiddenQuads() {
+        possibilities.copyFrom(midSolve);
+        return hiddenQuads.apply(possibilities);
+    }
+
+    @Benchmark
+    public boolean xWing() {
+        possibilities.copyFrom(midSolve);
+        return xWing.apply(possibilities);
+    }
+
+    @Benchmark
+    public boolean swordfish() {
+        possibilities.copyFrom(midSolve);
+        return swordfish.apply(possibilities);
+    }
+}
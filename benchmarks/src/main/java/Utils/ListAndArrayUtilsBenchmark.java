@@ -0,0 +1,46 @@
+package main.java.Utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the helpers in ListAndArrayUtils with inputs of the size they get from a 9x9 board
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ListAndArrayUtilsBenchmark {
+
+    private final int[] square = {1, 2, 4, 5, 7, 9};
+    private final int[] row = {2, 3, 4, 6, 7, 8, 9};
+    private final int[] column = {1, 2, 3, 4, 7, 9};
+    private final int[] cell = {2, 4, 7, 9};
+    private final int[][] unit = {{2, 4}, {}, {1, 4, 8}, {2, 8}, {}, {4, 6, 8}, {1, 2}, {}, {2, 4, 6}};
+
+    @Benchmark
+    public int[] findCommons() {
+        return ListAndArrayUtils.findCommons(square, row, column);
+    }
+
+    @Benchmark
+    public int[] excludeValue() {
+        return ListAndArrayUtils.excludeValue(cell, 7);
+    }
+
+    @Benchmark
+    public int singlePossibleFinder() {
+        return ListAndArrayUtils.singlePossibleFinder(unit, 6);
+    }
+}
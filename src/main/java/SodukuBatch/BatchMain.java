@@ -0,0 +1,339 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuSolver.SodukuSolver;
+import main.java.SodukuSolver.SolutionCache;
+import main.java.SodukuSolver.SolverBackend;
+import main.java.SodukuUtils.SodukuLineFormat;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves a file of soduku boards without starting the user interface. The input has one board per line in the 81
+ * character format ('0' or '.' for empty cells), 16x16 and 25x25 boards are written the same way with letters for the
+ * numbers from 10 and up. Every line can have its own board size. For every board one line is written to the output
+ * with the resulting board and the SolveResults value separated by a space. Lines that are not boards are written back
+ * followed by INVALID, empty lines and lines starting with '#' are skipped.
+ * <p>
+ * The boards are read, solved and written a chunk at a time so the memory usage does not depend on the size of the
+ * input. Every chunk is solved in parallel by one worker thread per core, -threads sets another number of workers.
+ * -stats prints the summed up SolveStats of all solves to stderr (only the TECHNIQUES engine has stats). -cache n
+ * keeps the results of the last n boards by their CanonicalForm so relabelled, rotated or permuted copies of a board
+ * are only solved once (also only for the TECHNIQUES engine). -grade rates the difficulty of every board and prints
+ * the number of boards per hardest technique needed and the average and largest DifficultyRating score to stderr
+ * (TECHNIQUES engine only, the cache is not used while grading). -timeout ms stops the solve of a board that takes
+ * longer than ms milliseconds, it gets the result TIMED_OUT and the cells filled in without guessing.
+ * <pre>
+ * usage: BatchMain [-engine TECHNIQUES|DANCING_LINKS|AUTO] [-threads n] [-stats] [-grade] [-cache n] [-timeout ms]
+ *                  [-packed] [input file|-] [output file|-]
+ * </pre>
+ * A missing file name or '-' means stdin or stdout. A summary is printed to stderr when all boards are solved.
+ * <p>
+ * An input file (not stdin) is memory mapped and split into ranges of lines that the workers read and solve in
+ * parallel, see MappedCorpus. No String or array is made per line then.
+ * <p>
+ * An input file in the PackedBoardFile format is found by its magic bytes and read directly. -packed writes the output
+ * as a PackedBoardFile instead of text, lines that are not boards are then only counted. PackedConvert converts files
+ * between the two formats.
+ */
+public class BatchMain {
+
+    /**
+     * Number of lines read and solved at a time
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Size of the ranges a memory mapped input file is split into
+     */
+    private static final long RANGE_BYTES = 1 << 20;
+
+    /**
+     * Number of ranges read and solved at a time per thread of the solver, more than one so a thread that is done with
+     * its range can take another one while the slowest ranges of the group are still being solved
+     */
+    private static final int RANGES_PER_THREAD = 4;
+
+    public static void main(String[] args) throws Exception {
+        SolverBackend backend = SolverBackend.TECHNIQUES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean printStats = false;
+        boolean grade = false;
+        long timeoutMillis = 0;
+        boolean packedOutput = false;
+        SolutionCache cache = null;
+        String input = "-";
+        String output = "-";
+        int fileArgs = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-engine") && i + 1 < args.length) {
+                backend = SolverBackend.valueOf(args[++i]);
+            } else if (args[i].equals("-threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-stats")) {
+                printStats = true;
+            } else if (args[i].equals("-grade")) {
+                grade = true;
+            } else if (args[i].equals("-cache") && i + 1 < args.length) {
+                cache = new SolutionCache(Integer.parseInt(args[++i]));
+            } else if (args[i].equals("-timeout") && i + 1 < args.length) {
+                timeoutMillis = Long.parseLong(args[++i]);
+            } else if (args[i].equals("-packed")) {
+                packedOutput = true;
+            } else if (fileArgs == 0) {
+                input = args[i];
+                fileArgs++;
+            } else if (fileArgs == 1) {
+                output = args[i];
+                fileArgs++;
+            } else {
+                System.err.println("usage: BatchMain [-engine TECHNIQUES|DANCING_LINKS|AUTO] [-threads n] [-stats] [-grade] [-cache n] [-timeout ms] [-packed] [input file|-] [output file|-]");
+                System.exit(2);
+            }
+        }
+
+        OutputStream out = output.equals("-") ? System.out : new FileOutputStream(output);
+        long startTime = System.nanoTime();
+        try (BatchOutput batchOutput = packedOutput ? BatchOutput.packed(out) : BatchOutput.text(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16));
+             ParallelBatchSolver solver = new ParallelBatchSolver(backend, threads, printStats, cache, grade)) {
+            solver.setTimeLimit(timeoutMillis, TimeUnit.MILLISECONDS);
+            Path inputFile = input.equals("-") ? null : Paths.get(input);
+            if (inputFile == null) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(System.in, StandardCharsets.US_ASCII), 1 << 16)) {
+                    solveAll(reader, batchOutput, solver);
+                }
+            } else if (PackedBoardFile.isPackedFile(inputFile)) {
+                try (PackedBoardFile.Reader reader = new PackedBoardFile.Reader(inputFile)) {
+                    solveAll(reader, batchOutput, solver);
+                }
+            } else {
+                try (MappedCorpus corpus = new MappedCorpus(inputFile)) {
+                    solveAll(corpus, batchOutput, solver);
+                }
+            }
+            batchOutput.flush();
+            printSummary(batchOutput, (System.nanoTime() - startTime) / 1000000);
+            if (cache != null) {
+                System.err.println("cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses");
+            }
+            if (printStats) {
+                System.err.println(solver.getStats());
+            }
+            if (grade) {
+                System.err.println(solver.getRating());
+            }
+        }
+    }
+
+    /**
+     * Solves every board read from reader and writes the results to output. The boards are read a chunk at a time and
+     * every chunk is solved in parallel by solver before its results are written.
+     *
+     * @param reader where to read the boards from
+     * @param output where to write the results to
+     * @param solver the solver to solve the boards with
+     * @throws IOException if reading or writing fails
+     */
+    public static void solveAll(BufferedReader reader, BatchOutput output, ParallelBatchSolver solver)
+            throws IOException {
+        String[] lines = new String[CHUNK_SIZE];
+        int[][][] boards = new int[CHUNK_SIZE][9][9];
+        int[] boardOfLine = new int[CHUNK_SIZE];
+        SodukuSolver.SolveResults[] results = new SodukuSolver.SolveResults[CHUNK_SIZE];
+
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            int lineCount = 0;
+            int boardCount = 0;
+            while (lineCount < CHUNK_SIZE) {
+                String text = reader.readLine();
+                if (text == null) {
+                    endOfInput = true;
+                    break;
+                }
+                if (text.trim().isEmpty() || text.startsWith("#")) {
+                    continue;
+                }
+                lines[lineCount] = text;
+                int size = SodukuLineFormat.boardSize(text);
+                if (size != 0 && boards[boardCount].length != size) {
+                    boards[boardCount] = new int[size][size];
+                }
+                if (size != 0 && SodukuLineFormat.parse(text, boards[boardCount])) {
+                    boardOfLine[lineCount] = boardCount++;
+                } else {
+                    boardOfLine[lineCount] = -1;
+                }
+                lineCount++;
+            }
+
+            solver.solveAll(boards, boardCount, results);
+
+            for (int i = 0; i < lineCount; i++) {
+                int board = boardOfLine[i];
+                if (board == -1) {
+                    output.invalid(lines[i].trim());
+                } else {
+                    output.board(boards[board], results[board], lines[i].trim());
+                }
+                lines[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Solves every board in a packed board file and writes the results to output, a chunk of boards at a time
+     *
+     * @param reader the file to read the boards from
+     * @param output where to write the results to
+     * @param solver the solver to solve the boards with
+     * @throws IOException if reading or writing fails
+     */
+    public static void solveAll(PackedBoardFile.Reader reader, BatchOutput output, ParallelBatchSolver solver)
+            throws IOException {
+        int size = reader.getBoardSize();
+        int[][][] boards = new int[CHUNK_SIZE][size][size];
+        SodukuSolver.SolveResults[] results = new SodukuSolver.SolveResults[CHUNK_SIZE];
+        for (long first = 0; first < reader.getCount(); first += CHUNK_SIZE) {
+            int count = (int) Math.min(CHUNK_SIZE, reader.getCount() - first);
+            for (int i = 0; i < count; i++) {
+                reader.read(first + i, boards[i]);
+            }
+            solver.solveAll(boards, count, results);
+            for (int i = 0; i < count; i++) {
+                output.board(boards[i], results[i], null);
+            }
+        }
+    }
+
+    /**
+     * Solves every board in corpus and writes the results to output, the same way as solveAll(BufferedReader, ...).
+     * The corpus is split into ranges that are read and solved in parallel, a group of ranges at a time. The results of
+     * a range are kept packed (see PackedBoardFile) until the whole group is solved and the results can be written in
+     * order, so only a few bytes per board of the group is kept in memory.
+     *
+     * @param corpus the memory mapped file to read the boards from
+     * @param output where to write the results to
+     * @param solver the solver to solve the boards with
+     * @throws IOException if reading or writing fails
+     */
+    public static void solveAll(MappedCorpus corpus, BatchOutput output, ParallelBatchSolver solver)
+            throws IOException {
+        List<MappedCorpus.Range> ranges = corpus.split(RANGE_BYTES);
+        int rangesAtATime = Math.min(ranges.size(), solver.getThreads() * RANGES_PER_THREAD);
+        RangeResults[] rangeResults = new RangeResults[rangesAtATime];
+        for (int i = 0; i < rangesAtATime; i++) {
+            rangeResults[i] = new RangeResults();
+        }
+        int[][] board = new int[9][9];
+
+        // Every range of the group is handled by one task, so rangeResults[range] is only used by one thread at a time
+        ParallelBatchSolver.LineHandler handler = (range, line, solved, result) -> {
+            if (result == SodukuSolver.SolveResults.NOT_TESTED) {
+                rangeResults[range].addInvalid(line);
+            } else {
+                rangeResults[range].addBoard(solved, result);
+            }
+        };
+
+        for (int first = 0; first < ranges.size(); first += rangesAtATime) {
+            List<MappedCorpus.Range> group = ranges.subList(first, Math.min(first + rangesAtATime, ranges.size()));
+            solver.solveRanges(corpus, group, handler);
+            for (int i = 0; i < group.size(); i++) {
+                board = rangeResults[i].writeTo(output, board);
+            }
+        }
+    }
+
+    /**
+     * The results of the lines of one range, kept in order. Every board is stored as its size followed by a
+     * PackedBoardFile record, lines that are not boards as a 0 and the line.
+     */
+    private static class RangeResults {
+        private byte[] bytes = new byte[1 << 16];
+        private int length;
+        private final List<String> invalidLines = new ArrayList<>();
+        private final StringBuilder line = new StringBuilder();
+
+        void addBoard(int[][] board, SodukuSolver.SolveResults result) {
+            int recordBytes = PackedBoardFile.recordBytes(board.length);
+            ensureCapacity(1 + recordBytes);
+            bytes[length++] = (byte) board.length;
+            PackedBoardFile.pack(board, result, bytes, length);
+            length += recordBytes;
+        }
+
+        void addInvalid(MappedCorpus.LineCursor cursor) {
+            ensureCapacity(1);
+            bytes[length++] = 0;
+            line.setLength(0);
+            cursor.appendLine(line);
+            invalidLines.add(line.toString());
+        }
+
+        private void ensureCapacity(int needed) {
+            if (length + needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + needed));
+            }
+        }
+
+        /**
+         * Writes the results to output and empties this
+         *
+         * @param board a board to unpack the boards into, replaced by a new one if it has the wrong size
+         * @return the board used last
+         */
+        int[][] writeTo(BatchOutput output, int[][] board) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int invalid = 0;
+            int position = 0;
+            while (position < length) {
+                int size = bytes[position++];
+                if (size == 0) {
+                    output.invalid(invalidLines.get(invalid++));
+                    continue;
+                }
+                if (board.length != size) {
+                    board = new int[size][size];
+                }
+                SodukuSolver.SolveResults result = PackedBoardFile.unpack(buffer, position, board);
+                position += PackedBoardFile.recordBytes(size);
+                output.board(board, result, null);
+            }
+            length = 0;
+            invalidLines.clear();
+            return board;
+        }
+    }
+
+    private static void printSummary(BatchOutput output, long elapsedMillis) {
+        long total = output.getInvalidCount();
+        StringBuilder summary = new StringBuilder();
+        for (SodukuSolver.SolveResults result : SodukuSolver.SolveResults.values()) {
+            long count = output.getCount(result);
+            if (count > 0) {
+                summary.append(' ').append(result.name()).append('=').append(count);
+                total += count;
+            }
+        }
+        if (output.getInvalidCount() > 0) {
+            summary.append(" INVALID=").append(output.getInvalidCount());
+        }
+        System.err.println(total + " boards in " + elapsedMillis + " ms:" + summary);
+    }
+}
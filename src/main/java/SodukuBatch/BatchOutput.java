@@ -0,0 +1,195 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuSolver.SodukuSolver;
+import main.java.SodukuUtils.SodukuLineFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Where BatchMain writes the results to, either as text lines or as a PackedBoardFile. Counts the results written so
+ * the summary can be printed then all boards are solved.
+ */
+public abstract class BatchOutput implements AutoCloseable {
+
+    private final long[] resultCounts = new long[SodukuSolver.SolveResults.values().length];
+    private long invalid;
+
+    /**
+     * Writes one line per board: the board in the 81 character format and the result separated by a space. Lines that
+     * are not boards are written back followed by INVALID.
+     *
+     * @param writer the writer to write to, it is closed when the output is closed
+     * @return the output
+     */
+    public static BatchOutput text(Writer writer) {
+        return new TextOutput(writer);
+    }
+
+    /**
+     * Writes the boards and results as a PackedBoardFile. The board size of the file is the size of the first board
+     * written (9 if no board is written), boards of other sizes and lines that are not boards are counted as invalid
+     * but not written.
+     *
+     * @param out the stream to write to, it is closed when the output is closed
+     * @return the output
+     */
+    public static BatchOutput packed(OutputStream out) {
+        return new PackedOutput(out);
+    }
+
+    /**
+     * Writes a solved board
+     *
+     * @param board  the board after the solve attempt
+     * @param result the result of the solve attempt, NOT_TESTED if the board was not a valid playfield
+     * @param line   the line the board was read from, used if result is NOT_TESTED. Can be null if the board was not
+     *               read from text
+     * @throws IOException if writing fails
+     */
+    public void board(int[][] board, SodukuSolver.SolveResults result, CharSequence line) throws IOException {
+        if (result == SodukuSolver.SolveResults.NOT_TESTED) {
+            invalid(line != null ? line : boardLine(board));
+        } else if (writeBoard(board, result)) {
+            resultCounts[result.ordinal()]++;
+        } else {
+            invalid++;
+        }
+    }
+
+    /**
+     * Writes a line that is not a valid board
+     *
+     * @param line the line without leading and trailing whitespace
+     * @throws IOException if writing fails
+     */
+    public void invalid(CharSequence line) throws IOException {
+        invalid++;
+        writeInvalid(line);
+    }
+
+    /**
+     * @return the board in the 81 character format
+     */
+    private static CharSequence boardLine(int[][] board) {
+        StringBuilder line = new StringBuilder(board.length * board.length);
+        SodukuLineFormat.append(board, line);
+        return line;
+    }
+
+    /**
+     * @return false if the board could not be written and should be counted as invalid
+     */
+    protected abstract boolean writeBoard(int[][] board, SodukuSolver.SolveResults result) throws IOException;
+
+    protected abstract void writeInvalid(CharSequence line) throws IOException;
+
+    public abstract void flush() throws IOException;
+
+    /**
+     * Flushes and closes the writer or stream written to
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public abstract void close() throws IOException;
+
+    /**
+     * @param result a SolveResults value
+     * @return the number of boards written with result
+     */
+    public long getCount(SodukuSolver.SolveResults result) {
+        return resultCounts[result.ordinal()];
+    }
+
+    /**
+     * @return the number of lines that was not valid boards
+     */
+    public long getInvalidCount() {
+        return invalid;
+    }
+
+    private static class TextOutput extends BatchOutput {
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(96);
+        private char[] lineChars = new char[96];
+
+        TextOutput(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        protected boolean writeBoard(int[][] board, SodukuSolver.SolveResults result) throws IOException {
+            line.setLength(0);
+            SodukuLineFormat.append(board, line);
+            line.append(' ').append(result.name()).append('\n');
+            writeLine();
+            return true;
+        }
+
+        @Override
+        protected void writeInvalid(CharSequence invalidLine) throws IOException {
+            line.setLength(0);
+            line.append(invalidLine).append(" INVALID\n");
+            writeLine();
+        }
+
+        private void writeLine() throws IOException {
+            if (line.length() > lineChars.length) {
+                lineChars = new char[line.length()];
+            }
+            line.getChars(0, line.length(), lineChars, 0);
+            writer.write(lineChars, 0, line.length());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static class PackedOutput extends BatchOutput {
+        private final OutputStream out;
+        private PackedBoardFile.Writer writer;
+
+        PackedOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        protected boolean writeBoard(int[][] board, SodukuSolver.SolveResults result) throws IOException {
+            if (writer == null) {
+                writer = new PackedBoardFile.Writer(out, board.length);
+            } else if (writer.getBoardSize() != board.length) {
+                return false;
+            }
+            writer.write(board, result);
+            return true;
+        }
+
+        @Override
+        protected void writeInvalid(CharSequence line) {
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer == null) {
+                writer = new PackedBoardFile.Writer(out, 9);
+            }
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuSolver.SodukuSolver;
+
+/**
+ * The result of solving one board in a batch: the board after the solve attempt and the SolveResults value
+ */
+public class BatchResult {
+    private final int[][] playfield;
+    private final SodukuSolver.SolveResults solveResult;
+
+    public BatchResult(int[][] playfield, SodukuSolver.SolveResults solveResult) {
+        this.playfield = playfield;
+        this.solveResult = solveResult;
+    }
+
+    /**
+     * @return int[9][9] containing the playfield after the solve attempt
+     */
+    public int[][] getPlayfield() {
+        return playfield;
+    }
+
+    /**
+     * @return the result of the solve attempt, NOT_TESTED if the board was not a valid playfield
+     */
+    public SodukuSolver.SolveResults getSolveResult() {
+        return solveResult;
+    }
+}
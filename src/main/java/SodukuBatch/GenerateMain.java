@@ -0,0 +1,165 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuSolver.PuzzleGenerator;
+import main.java.SodukuUtils.SodukuLineFormat;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates soduku puzzles with exactly one solution and writes them one per line in the format BatchMain reads.
+ * Puzzle number i is made from a seed mixed from -seed and i (see PuzzleGenerator.seedFor) so the same arguments
+ * always gives the same file, no matter how many threads that are used.
+ * <pre>
+ * usage: GenerateMain [-count n] [-seed n] [-clues n] [-symmetry NONE|ROTATE_180|ROTATE_90|MIRROR|DIAGONAL]
+ *                     [-size 4|9|16|25] [-threads n] [output file|-]
+ * </pre>
+ * -count defaults to 1, -seed to the current time (printed to stderr so the run can be repeated) and -clues to 0 that
+ * removes as many clues as possible. A missing file name or '-' means stdout.
+ */
+public class GenerateMain {
+
+    /**
+     * Number of puzzles generated before they are written
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Ranges with this many puzzles or less are generated by one thread without splitting them further
+     */
+    private static final int RANGE_SIZE = 4;
+
+    public static void main(String[] args) throws Exception {
+        long count = 1;
+        long seed = System.currentTimeMillis();
+        boolean seedGiven = false;
+        int clues = 0;
+        PuzzleGenerator.Symmetry symmetry = PuzzleGenerator.Symmetry.NONE;
+        int size = 9;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String output = "-";
+        int fileArgs = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-count") && i + 1 < args.length) {
+                count = Long.parseLong(args[++i]);
+            } else if (args[i].equals("-seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+                seedGiven = true;
+            } else if (args[i].equals("-clues") && i + 1 < args.length) {
+                clues = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-symmetry") && i + 1 < args.length) {
+                symmetry = PuzzleGenerator.Symmetry.valueOf(args[++i]);
+            } else if (args[i].equals("-size") && i + 1 < args.length) {
+                size = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (fileArgs == 0) {
+                output = args[i];
+                fileArgs++;
+            } else {
+                System.err.println("usage: GenerateMain [-count n] [-seed n] [-clues n] [-symmetry NONE|ROTATE_180|ROTATE_90|MIRROR|DIAGONAL] [-size 4|9|16|25] [-threads n] [output file|-]");
+                System.exit(2);
+            }
+        }
+        if (!seedGiven) {
+            System.err.println("seed: " + seed);
+        }
+
+        OutputStream out = output.equals("-") ? System.out : new FileOutputStream(output);
+        long startTime = System.nanoTime();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16)) {
+            generateAll(count, seed, size, clues, symmetry, threads, writer);
+        }
+        System.err.println(count + " puzzles generated in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+    }
+
+    /**
+     * Generates count puzzles in parallel and writes them in order to writer
+     *
+     * @param count    the number of puzzles to generate
+     * @param seed     the seed of the run
+     * @param size     the number of rows of the puzzles
+     * @param clues    the target number of clues, see PuzzleGenerator.setTargetClues
+     * @param symmetry the pattern to remove clues in
+     * @param threads  the number of threads to generate with
+     * @param writer   where to write the puzzles
+     * @throws IOException if writing fails
+     */
+    public static void generateAll(long count, long seed, int size, int clues, PuzzleGenerator.Symmetry symmetry,
+                                   int threads, Writer writer) throws IOException {
+        ThreadLocal<PuzzleGenerator> generators = ThreadLocal.withInitial(() -> {
+            PuzzleGenerator generator = new PuzzleGenerator(size);
+            generator.setTargetClues(clues);
+            generator.setSymmetry(symmetry);
+            return generator;
+        });
+        int[][][] puzzles = new int[CHUNK_SIZE][][];
+        StringBuilder line = new StringBuilder(size * size + 1);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (long first = 0; first < count; first += CHUNK_SIZE) {
+                int chunk = (int) Math.min(CHUNK_SIZE, count - first);
+                pool.invoke(new GenerateRange(generators, seed, first, puzzles, 0, chunk));
+                for (int i = 0; i < chunk; i++) {
+                    line.setLength(0);
+                    SodukuLineFormat.append(puzzles[i], line);
+                    line.append('\n');
+                    writer.append(line);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Generates the puzzles from index from up to (not including) index to of a chunk, splits itself in two if the
+     * range is large
+     */
+    private static class GenerateRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ThreadLocal<PuzzleGenerator> generators;
+        private final long seed;
+        private final long chunkStart;
+        private final int[][][] puzzles;
+        private final int from;
+        private final int to;
+
+        GenerateRange(ThreadLocal<PuzzleGenerator> generators, long seed, long chunkStart, int[][][] puzzles,
+                      int from, int to) {
+            this.generators = generators;
+            this.seed = seed;
+            this.chunkStart = chunkStart;
+            this.puzzles = puzzles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > RANGE_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GenerateRange(generators, seed, chunkStart, puzzles, from, middle),
+                        new GenerateRange(generators, seed, chunkStart, puzzles, middle, to));
+                return;
+            }
+            PuzzleGenerator generator = generators.get();
+            for (int i = from; i < to; i++) {
+                try {
+                    puzzles[i] = generator.generate(PuzzleGenerator.seedFor(seed, chunkStart + i));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuUtils.SodukuLineFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file of soduku boards in the one-line format (see SodukuLineFormat) that is read by memory mapping it instead of
+ * reading it through a Reader. The boards are parsed straight from the mapped bytes, no String or other object is
+ * made per line.
+ * <p>
+ * The file can be split into ranges of whole lines with split(long), every range has its own LineCursor so different
+ * threads can read different parts of the file at the same time. A file of any size can be read, but a single range
+ * is mapped at once and can not be larger than MAX_RANGE_BYTES.
+ * <p>
+ * Call close() then done, the mapped ranges are unmapped by the garbage collector then they are no longer used.
+ */
+public class MappedCorpus implements AutoCloseable {
+
+    /**
+     * The largest range that can be mapped at once
+     */
+    public static final long MAX_RANGE_BYTES = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final long size;
+
+    /**
+     * @param file the file to read
+     * @throws IOException if the file can not be opened
+     */
+    public MappedCorpus(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Splits the file into ranges of about rangeBytes bytes. Every range ends just after a line break (or at the end of
+     * the file) so no line is split between two ranges. A range can be a bit larger than rangeBytes if it ends in the
+     * middle of a line, then the rest of the line is included.
+     *
+     * @param rangeBytes the wanted size of the ranges, at most MAX_RANGE_BYTES minus the length of the longest line
+     * @return the ranges in file order, empty if the file is empty
+     * @throws IOException if reading the file fails
+     */
+    public List<Range> split(long rangeBytes) throws IOException {
+        List<Range> ranges = new ArrayList<>();
+        ByteBuffer search = ByteBuffer.allocate(256);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + rangeBytes, size);
+            end = nextLineStart(end, search);
+            if (end - start > MAX_RANGE_BYTES) {
+                throw new IOException("Range starting at " + start + " is too large to be mapped");
+            }
+            ranges.add(new Range(start, end));
+            start = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * @return the position after the first line break at or after position - 1, or the size of the file if there is
+     * none
+     */
+    private long nextLineStart(long position, ByteBuffer search) throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        long readPosition = position - 1;
+        while (readPosition < size) {
+            search.clear();
+            int read = channel.read(search, readPosition);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (search.get(i) == '\n') {
+                    return readPosition + i + 1;
+                }
+            }
+            readPosition += read;
+        }
+        return size;
+    }
+
+    /**
+     * Maps a range and creates a cursor for reading its lines
+     *
+     * @param range a range returned by split of this corpus
+     * @return a cursor positioned before the first line of range
+     * @throws IOException if the range can not be mapped
+     */
+    public LineCursor open(Range range) throws IOException {
+        return new LineCursor(channel.map(FileChannel.MapMode.READ_ONLY, range.start, range.end - range.start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A part of the file made of whole lines, from the byte start up to (not including) the byte end
+     */
+    public static class Range {
+        private final long start;
+        private final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+    }
+
+    /**
+     * Steps through the lines of a mapped range. Empty lines and lines starting with '#' are skipped the same way as
+     * BatchMain skips them, leading and trailing whitespace (also '\r') is not part of the line.
+     * A cursor must only be used by one thread.
+     */
+    public static class LineCursor {
+        private final MappedByteBuffer bytes;
+        private final int limit;
+        private int next;
+        private int lineStart;
+        private int lineEnd;
+
+        LineCursor(MappedByteBuffer bytes) {
+            this.bytes = bytes;
+            limit = bytes.limit();
+        }
+
+        /**
+         * Moves to the next line that is not empty or a comment
+         *
+         * @return false if there are no more lines in the range
+         */
+        public boolean nextLine() {
+            while (next < limit) {
+                int start = next;
+                int end = start;
+                while (end < limit && bytes.get(end) != '\n') {
+                    end++;
+                }
+                next = end + 1;
+                if (bytes.get(start) == '#') {
+                    continue;
+                }
+                while (start < end && isWhitespace(bytes.get(start))) {
+                    start++;
+                }
+                while (end > start && isWhitespace(bytes.get(end - 1))) {
+                    end--;
+                }
+                if (start != end) {
+                    lineStart = start;
+                    lineEnd = end;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the number of rows of the board on the current line or 0 if the length is not the length of a board
+         */
+        public int boardSize() {
+            return SodukuLineFormat.boardSizeOfLength(lineEnd - lineStart);
+        }
+
+        /**
+         * Parses the current line into target
+         *
+         * @param target a board of the size returned by boardSize()
+         * @return false if the line is not a board of the size of target, true otherwise
+         */
+        public boolean parse(int[][] target) {
+            return SodukuLineFormat.parse(bytes, lineStart, lineEnd, target);
+        }
+
+        /**
+         * Appends the current line without leading and trailing whitespace to out
+         *
+         * @param out the StringBuilder to append to
+         */
+        public void appendLine(StringBuilder out) {
+            for (int i = lineStart; i < lineEnd; i++) {
+                out.append((char) (bytes.get(i) & 0xFF));
+            }
+        }
+
+        private static boolean isWhitespace(byte b) {
+            // The same characters as String.trim() removes
+            return (b & 0xFF) <= ' ';
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuSolver.SodukuSolver;
+import main.java.SodukuUtils.SodukuUnits;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary file format for soduku boards. Every board is stored in a record of the same size so a board can be
+ * read by its index without reading the boards before it. The cells are packed with as few bits as the numbers of the
+ * board size needs, 4 bits per cell for 9x9 boards, which makes a record 42 bytes instead of the 82 bytes of a text
+ * line (and about 100 bytes for a line with a result).
+ * <pre>
+ * File header, HEADER_BYTES bytes:
+ *   0  4  the magic bytes "SDKP"
+ *   4  1  format version, VERSION
+ *   5  1  the board size (number of rows), all boards of a file has the same size
+ *   6  1  bits per cell
+ *   7  1  0
+ *   8  4  the size of a record in bytes, big endian
+ *  12  4  0
+ * Records, one per board:
+ *   0  1  the SolveResults ordinal of the board, NOT_TESTED for boards that has not been solved
+ *   1  .. the cells row by row, bits per cell bits each, the first cell in the most significant bits of the first byte
+ * </pre>
+ * The number of records is given by the size of the file.
+ */
+public class PackedBoardFile {
+
+    public static final int HEADER_BYTES = 16;
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'S', 'D', 'K', 'P'};
+
+    /**
+     * @param boardSize the number of rows of the boards
+     * @return the number of bits a cell is packed into
+     */
+    public static int bitsPerCell(int boardSize) {
+        return 32 - Integer.numberOfLeadingZeros(boardSize);
+    }
+
+    /**
+     * @param boardSize the number of rows of the boards
+     * @return the size of a record in bytes
+     */
+    public static int recordBytes(int boardSize) {
+        return 1 + (boardSize * boardSize * bitsPerCell(boardSize) + 7) / 8;
+    }
+
+    /**
+     * Checks if a file starts with the magic bytes of this format
+     *
+     * @param file the file to check
+     * @return true if the file is a packed board file, false if it is something else (for example a text file)
+     * @throws IOException if reading the file fails
+     */
+    public static boolean isPackedFile(Path file) throws IOException {
+        byte[] start = new byte[MAGIC.length];
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            in.readFully(start);
+        } catch (EOFException e) {
+            return false; // shorter than the magic bytes
+        }
+        return hasMagic(start);
+    }
+
+    /**
+     * @param start the first bytes of a file
+     * @return true if start begins with the magic bytes of this format
+     */
+    public static boolean hasMagic(byte[] start) {
+        if (start.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (start[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs board and result into a record
+     *
+     * @param board  the board to pack, a int[size][size] with numbers between 0 and size
+     * @param result the result to store with the board
+     * @param record the array to write the record to
+     * @param offset the index in record to write the first byte at, recordBytes(size) bytes are written
+     */
+    public static void pack(int[][] board, SodukuSolver.SolveResults result, byte[] record, int offset) {
+        int bits = bitsPerCell(board.length);
+        record[offset++] = (byte) result.ordinal();
+        int buffer = 0;
+        int buffered = 0;
+        for (int[] row : board) {
+            for (int value : row) {
+                buffer = buffer << bits | value;
+                buffered += bits;
+                if (buffered >= 8) {
+                    buffered -= 8;
+                    record[offset++] = (byte) (buffer >>> buffered);
+                }
+            }
+        }
+        if (buffered > 0) {
+            record[offset] = (byte) (buffer << (8 - buffered));
+        }
+    }
+
+    /**
+     * Unpacks a record into target
+     *
+     * @param record the buffer to read the record from, its position is not used or changed
+     * @param offset the index in record of the first byte of the record
+     * @param target a int[size][size] to write the board to
+     * @return the result stored with the board
+     * @throws IOException if the record has a unknown result or a number larger than the board size
+     */
+    public static SodukuSolver.SolveResults unpack(ByteBuffer record, int offset, int[][] target) throws IOException {
+        int size = target.length;
+        int bits = bitsPerCell(size);
+        int mask = (1 << bits) - 1;
+        int resultOrdinal = record.get(offset++) & 0xFF;
+        SodukuSolver.SolveResults[] results = SodukuSolver.SolveResults.values();
+        if (resultOrdinal >= results.length) {
+            throw new IOException("Unknown result " + resultOrdinal + " in record");
+        }
+        int buffer = 0;
+        int buffered = 0;
+        for (int[] row : target) {
+            for (int c = 0; c < size; c++) {
+                if (buffered < bits) {
+                    buffer = buffer << 8 | (record.get(offset++) & 0xFF);
+                    buffered += 8;
+                }
+                buffered -= bits;
+                int value = buffer >>> buffered & mask;
+                if (value > size) {
+                    throw new IOException("Number " + value + " is too large for a " + size + "x" + size + " board");
+                }
+                row[c] = value;
+            }
+        }
+        return results[resultOrdinal];
+    }
+
+    /**
+     * Writes a packed board file, the header is written when the writer is created
+     */
+    public static class Writer implements AutoCloseable {
+        private final OutputStream out;
+        private final int boardSize;
+        private final byte[] record;
+
+        /**
+         * @param out       the stream to write to, it is closed when the writer is closed
+         * @param boardSize the number of rows of the boards that will be written, 4, 9, 16 or 25
+         * @throws IOException if writing the header fails
+         */
+        public Writer(OutputStream out, int boardSize) throws IOException {
+            if (SodukuUnits.forBoardSize(boardSize) == null) {
+                throw new IllegalArgumentException("Unsupported board size " + boardSize);
+            }
+            this.out = new BufferedOutputStream(out, 1 << 16);
+            this.boardSize = boardSize;
+            record = new byte[recordBytes(boardSize)];
+
+            byte[] header = new byte[HEADER_BYTES];
+            System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+            header[4] = VERSION;
+            header[5] = (byte) boardSize;
+            header[6] = (byte) bitsPerCell(boardSize);
+            ByteBuffer.wrap(header).putInt(8, record.length);
+            this.out.write(header);
+        }
+
+        /**
+         * @return the number of rows of the boards of this file
+         */
+        public int getBoardSize() {
+            return boardSize;
+        }
+
+        /**
+         * Writes a record with board and result
+         *
+         * @param board  a board of the size of this file
+         * @param result the result to store with the board, NOT_TESTED for boards that has not been solved
+         * @throws IOException if writing fails
+         */
+        public void write(int[][] board, SodukuSolver.SolveResults result) throws IOException {
+            if (board.length != boardSize) {
+                throw new IllegalArgumentException("Board of size " + board.length + " in a file of size " + boardSize);
+            }
+            pack(board, result, record, 0);
+            out.write(record);
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the boards of a packed board file by their index. The file is memory mapped a window of records at a time,
+     * so reading the boards in order as well as jumping around in a file of any size is fast.
+     * A reader must only be used by one thread.
+     */
+    public static class Reader implements AutoCloseable {
+
+        /**
+         * Number of records mapped at a time
+         */
+        private static final int WINDOW_RECORDS = 1 << 16;
+
+        private final FileChannel channel;
+        private final int boardSize;
+        private final int recordBytes;
+        private final long count;
+        private MappedByteBuffer window;
+        private long windowFirst;
+
+        /**
+         * @param file the file to read
+         * @throws IOException if the file can not be opened or is not a packed board file
+         */
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                while (header.hasRemaining()) {
+                    if (channel.read(header) < 0) {
+                        break;
+                    }
+                }
+                if (header.hasRemaining() || !hasMagic(header.array())) {
+                    throw new IOException(file + " is not a packed board file");
+                }
+                if (header.get(4) != VERSION) {
+                    throw new IOException(file + " has the unsupported version " + header.get(4));
+                }
+                boardSize = header.get(5) & 0xFF;
+                if (SodukuUnits.forBoardSize(boardSize) == null || header.get(6) != bitsPerCell(boardSize)
+                        || header.getInt(8) != recordBytes(boardSize)) {
+                    throw new IOException(file + " has a broken header");
+                }
+                recordBytes = header.getInt(8);
+                count = (channel.size() - HEADER_BYTES) / recordBytes;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return the number of rows of the boards of this file
+         */
+        public int getBoardSize() {
+            return boardSize;
+        }
+
+        /**
+         * @return the number of boards in the file
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Reads the board with the given index into target
+         *
+         * @param index  the index of the board, 0 for the first board of the file
+         * @param target a int[size][size] to write the board to
+         * @return the result stored with the board
+         * @throws IOException if reading fails or the record is broken
+         */
+        public SodukuSolver.SolveResults read(long index, int[][] target) throws IOException {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Board " + index + " of " + count);
+            }
+            if (target.length != boardSize) {
+                throw new IllegalArgumentException("Board of size " + target.length + " in a file of size " + boardSize);
+            }
+            if (window == null || index < windowFirst || index >= windowFirst + WINDOW_RECORDS) {
+                windowFirst = index - index % WINDOW_RECORDS;
+                long records = Math.min(WINDOW_RECORDS, count - windowFirst);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + windowFirst * recordBytes,
+                        records * recordBytes);
+            }
+            return unpack(window, (int) (index - windowFirst) * recordBytes, target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
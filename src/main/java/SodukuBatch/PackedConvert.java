@@ -0,0 +1,151 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuSolver.SodukuSolver;
+import main.java.SodukuUtils.SodukuLineFormat;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts between the text format of BatchMain and PackedBoardFile. A packed input file is written as text, one line
+ * per board with the result after a space (no result for boards that has not been solved). Any other input is read as
+ * text lines of boards, optionally followed by a SolveResults name like in the output of BatchMain, and written packed.
+ * All boards of a packed file must have the same size so lines with other sizes, INVALID lines and lines that are not
+ * boards are skipped and counted.
+ * <pre>
+ * usage: PackedConvert [input file|-] [output file|-]
+ * </pre>
+ * A missing file name or '-' means stdin or stdout, stdin is always read as text.
+ */
+public class PackedConvert {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 2) {
+            System.err.println("usage: PackedConvert [input file|-] [output file|-]");
+            System.exit(2);
+        }
+        String input = args.length > 0 ? args[0] : "-";
+        String output = args.length > 1 ? args[1] : "-";
+        Path inputFile = input.equals("-") ? null : Paths.get(input);
+        OutputStream out = output.equals("-") ? System.out : new FileOutputStream(output);
+
+        long written;
+        long skipped;
+        if (inputFile != null && PackedBoardFile.isPackedFile(inputFile)) {
+            try (PackedBoardFile.Reader reader = new PackedBoardFile.Reader(inputFile);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16)) {
+                written = unpack(reader, writer);
+                skipped = 0;
+            }
+        } else {
+            long[] counts;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    inputFile == null ? System.in : Files.newInputStream(inputFile), StandardCharsets.US_ASCII), 1 << 16)) {
+                counts = pack(reader, out);
+            }
+            written = counts[0];
+            skipped = counts[1];
+        }
+        System.err.println(written + " boards converted" + (skipped > 0 ? ", " + skipped + " lines skipped" : ""));
+    }
+
+    /**
+     * Writes every board of reader as a text line to writer
+     *
+     * @param reader the packed file to read
+     * @param writer where to write the lines
+     * @return the number of boards written
+     * @throws IOException if reading or writing fails
+     */
+    public static long unpack(PackedBoardFile.Reader reader, Writer writer) throws IOException {
+        int size = reader.getBoardSize();
+        int[][] board = new int[size][size];
+        StringBuilder line = new StringBuilder(size * size + 24);
+        for (long i = 0; i < reader.getCount(); i++) {
+            SodukuSolver.SolveResults result = reader.read(i, board);
+            line.setLength(0);
+            SodukuLineFormat.append(board, line);
+            if (result != SodukuSolver.SolveResults.NOT_TESTED) {
+                line.append(' ').append(result.name());
+            }
+            line.append('\n');
+            writer.append(line);
+        }
+        writer.flush();
+        return reader.getCount();
+    }
+
+    /**
+     * Writes every board line of reader as a packed board file to out. The board size of the file is the size of the
+     * first board (9 if there are no boards). Empty lines and lines starting with '#' are ignored.
+     *
+     * @param reader where to read the text lines from
+     * @param out    the stream to write to, it is closed then done
+     * @return the number of boards written and the number of lines skipped
+     * @throws IOException if reading or writing fails
+     */
+    public static long[] pack(BufferedReader reader, OutputStream out) throws IOException {
+        PackedBoardFile.Writer writer = null;
+        int[][] board = new int[9][9];
+        long written = 0;
+        long skipped = 0;
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                if (text.trim().isEmpty() || text.startsWith("#")) {
+                    continue;
+                }
+                String trimmed = text.trim();
+                int space = trimmed.indexOf(' ');
+                String boardText = space == -1 ? trimmed : trimmed.substring(0, space);
+                SodukuSolver.SolveResults result = parseResult(space == -1 ? "" : trimmed.substring(space + 1).trim());
+                int size = SodukuLineFormat.boardSize(boardText);
+                if (size != 0 && board.length != size) {
+                    board = new int[size][size];
+                }
+                if (result == null || size == 0 || !SodukuLineFormat.parse(boardText, board)
+                        || (writer != null && writer.getBoardSize() != size)) {
+                    skipped++;
+                    continue;
+                }
+                if (writer == null) {
+                    writer = new PackedBoardFile.Writer(out, size);
+                }
+                writer.write(board, result);
+                written++;
+            }
+        } finally {
+            if (writer == null) {
+                writer = new PackedBoardFile.Writer(out, 9);
+            }
+            writer.close();
+        }
+        return new long[]{written, skipped};
+    }
+
+    /**
+     * @return the SolveResults named name, NOT_TESTED for a empty name or null if name is not a SolveResults value
+     * (for example INVALID)
+     */
+    private static SodukuSolver.SolveResults parseResult(String name) {
+        if (name.isEmpty()) {
+            return SodukuSolver.SolveResults.NOT_TESTED;
+        }
+        for (SodukuSolver.SolveResults result : SodukuSolver.SolveResults.values()) {
+            if (result.name().equals(name)) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,399 @@
+package main.java.SodukuBatch;
+
+import main.java.SodukuSolver.DifficultyRating;
+import main.java.SodukuSolver.SodukuEngine;
+import main.java.SodukuSolver.SodukuSolver;
+import main.java.SodukuSolver.SolutionCache;
+import main.java.SodukuSolver.SolveDeadline;
+import main.java.SodukuSolver.SolveStats;
+import main.java.SodukuSolver.SolverBackend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Solves many boards at once using all cores. The boards are split into small ranges that are spread over a work
+ * stealing ForkJoinPool, every worker thread has its own engine that it reuses for all boards it solves.
+ * Results are always returned in the same order as the boards was given.
+ * <p>
+ * Call close() then done to stop the worker threads.
+ */
+public class ParallelBatchSolver implements AutoCloseable {
+
+    /**
+     * Ranges with this many boards or less are solved by one worker without splitting them further
+     */
+    private static final int RANGE_SIZE = 16;
+
+    /**
+     * Number of boards taken from a stream at a time by solveAll(Stream, Consumer)
+     */
+    private static final int STREAM_CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Worker> workers;
+    private final List<Worker> allWorkers = new CopyOnWriteArrayList<>();
+    private volatile long timeLimitNanos;
+
+    /**
+     * Creates a batch solver with one worker per available processor
+     *
+     * @param backend the type of engine the workers should use
+     */
+    public ParallelBatchSolver(SolverBackend backend) {
+        this(backend, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param backend the type of engine the workers should use
+     * @param threads the number of worker threads
+     */
+    public ParallelBatchSolver(SolverBackend backend, int threads) {
+        this(backend, threads, false);
+    }
+
+    /**
+     * @param backend      the type of engine the workers should use
+     * @param threads      the number of worker threads
+     * @param collectStats true to sum up the SolveStats of every solve, only the TECHNIQUES backend has stats
+     */
+    public ParallelBatchSolver(SolverBackend backend, int threads, boolean collectStats) {
+        this(backend, threads, collectStats, null);
+    }
+
+    /**
+     * @param backend      the type of engine the workers should use
+     * @param threads      the number of worker threads
+     * @param collectStats true to sum up the SolveStats of every solve, only the TECHNIQUES backend has stats
+     * @param cache        a cache shared by all workers or null for no cache, only the TECHNIQUES backend uses it
+     */
+    public ParallelBatchSolver(SolverBackend backend, int threads, boolean collectStats, SolutionCache cache) {
+        this(backend, threads, collectStats, cache, false);
+    }
+
+    /**
+     * @param backend        the type of engine the workers should use
+     * @param threads        the number of worker threads
+     * @param collectStats   true to sum up the SolveStats of every solve, only the TECHNIQUES backend has stats
+     * @param cache          a cache shared by all workers or null for no cache, only the TECHNIQUES backend uses it
+     * @param rateDifficulty true to sum up the DifficultyRating of every solve, only the TECHNIQUES backend rates the
+     *                       difficulty and it does not use the cache while rating
+     */
+    public ParallelBatchSolver(SolverBackend backend, int threads, boolean collectStats, SolutionCache cache,
+                               boolean rateDifficulty) {
+        pool = new ForkJoinPool(threads);
+        workers = ThreadLocal.withInitial(() -> {
+            Worker worker = new Worker(backend.newEngine(), collectStats, cache, rateDifficulty);
+            allWorkers.add(worker);
+            return worker;
+        });
+    }
+
+    /**
+     * @return the number of threads the boards are solved on
+     */
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Sets the longest time a single board may take to solve, boards that takes longer gets the result TIMED_OUT and
+     * the cells filled in by then, see SodukuEngine.solve(SolveDeadline). Must not be called while a solveAll call is
+     * running.
+     *
+     * @param time the time limit per board, 0 for no limit
+     * @param unit the unit of time
+     */
+    public void setTimeLimit(long time, TimeUnit unit) {
+        timeLimitNanos = unit.toNanos(time);
+    }
+
+    /**
+     * Solves the boards in place. After the call boards[i] contains the board after the solve attempt and results[i]
+     * the result of it. Boards with numbers outside 0-9 (0 to the board size) or of a unsupported size are left
+     * unchanged and gets the result NOT_TESTED.
+     * Nothing is allocated per board once every worker has created its engine.
+     *
+     * @param boards  the boards to solve
+     * @param count   the number of boards to solve, starting from index 0
+     * @param results array of at least count elements to put the results in
+     */
+    public void solveAll(int[][][] boards, int count, SodukuSolver.SolveResults[] results) {
+        pool.invoke(new SolveRange(boards, results, 0, count));
+    }
+
+    /**
+     * Solves all boards in the list, the list and its boards are not changed.
+     *
+     * @param boards the boards to solve
+     * @return one BatchResult per board in the same order as boards
+     */
+    public List<BatchResult> solveAll(List<int[][]> boards) {
+        int[][][] copies = new int[boards.size()][][];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = copyBoard(boards.get(i));
+        }
+        SodukuSolver.SolveResults[] results = new SodukuSolver.SolveResults[copies.length];
+        solveAll(copies, copies.length, results);
+
+        List<BatchResult> ret = new ArrayList<>(copies.length);
+        for (int i = 0; i < copies.length; i++) {
+            ret.add(new BatchResult(copies[i], results[i]));
+        }
+        return ret;
+    }
+
+    /**
+     * Solves all boards in the stream and gives the results to resultConsumer in the same order as the boards came
+     * in the stream. The boards are taken from the stream a chunk at a time so streams of any length can be solved
+     * without keeping all of them in memory. The boards in the stream are not changed.
+     *
+     * @param boards         the boards to solve
+     * @param resultConsumer called once per board with the result, always from the calling thread
+     */
+    public void solveAll(Stream<int[][]> boards, Consumer<BatchResult> resultConsumer) {
+        int[][][] chunk = new int[STREAM_CHUNK_SIZE][][];
+        SodukuSolver.SolveResults[] results = new SodukuSolver.SolveResults[STREAM_CHUNK_SIZE];
+        Iterator<int[][]> iterator = boards.iterator();
+        while (iterator.hasNext()) {
+            int count = 0;
+            while (count < STREAM_CHUNK_SIZE && iterator.hasNext()) {
+                chunk[count++] = copyBoard(iterator.next());
+            }
+            solveAll(chunk, count, results);
+            for (int i = 0; i < count; i++) {
+                resultConsumer.accept(new BatchResult(chunk[i], results[i]));
+            }
+        }
+    }
+
+    /**
+     * Reads and solves the lines of the ranges of a memory mapped corpus. The ranges are read in parallel, one range per
+     * task, so both the parsing and the solving is spread over the worker threads. handler is called once per line
+     * (empty lines and comments are skipped) from the worker thread reading the range, the lines of a range are always
+     * given in order but lines of different ranges can be given at the same time.
+     *
+     * @param corpus  the corpus to read
+     * @param ranges  ranges returned by corpus.split
+     * @param handler receives the result of every line
+     * @throws IOException if a range can not be mapped
+     */
+    public void solveRanges(MappedCorpus corpus, List<MappedCorpus.Range> ranges, LineHandler handler)
+            throws IOException {
+        try {
+            pool.invoke(new ReadRanges(corpus, ranges, handler, 0, ranges.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sums up the stats of all solves made so far, must not be called while a solveAll call is running.
+     *
+     * @return the summed up stats, all zero if the solver was not created to collect stats
+     */
+    public SolveStats getStats() {
+        SolveStats sum = new SolveStats();
+        for (Worker worker : allWorkers) {
+            if (worker.totalStats != null) {
+                sum.add(worker.totalStats);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums up the difficulty ratings of all solves made so far, must not be called while a solveAll call is running.
+     *
+     * @return the summed up ratings, all zero if the solver was not created to rate the difficulty
+     */
+    public DifficultyRating getRating() {
+        DifficultyRating sum = new DifficultyRating();
+        for (Worker worker : allWorkers) {
+            if (worker.rateDifficulty) {
+                sum.add(((SodukuSolver) worker.engine).getRating());
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Stops the worker threads
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static int[][] copyBoard(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int r = 0; r < board.length; r++) {
+            copy[r] = board[r].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Solves the boards from index from up to (not including) index to, splits itself in two if the range is large
+     */
+    private class SolveRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][][] boards;
+        private final SodukuSolver.SolveResults[] results;
+        private final int from;
+        private final int to;
+
+        SolveRange(int[][][] boards, SodukuSolver.SolveResults[] results, int from, int to) {
+            this.boards = boards;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > RANGE_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SolveRange(boards, results, from, middle), new SolveRange(boards, results, middle, to));
+                return;
+            }
+            Worker worker = workers.get();
+            for (int i = from; i < to; i++) {
+                results[i] = worker.solve(boards[i], timeLimitNanos);
+            }
+        }
+    }
+
+    /**
+     * Reads and solves the ranges from index from up to (not including) index to, one task per range
+     */
+    private class ReadRanges extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MappedCorpus corpus;
+        private final List<MappedCorpus.Range> ranges;
+        private final LineHandler handler;
+        private final int from;
+        private final int to;
+
+        ReadRanges(MappedCorpus corpus, List<MappedCorpus.Range> ranges, LineHandler handler, int from, int to) {
+            this.corpus = corpus;
+            this.ranges = ranges;
+            this.handler = handler;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReadRanges(corpus, ranges, handler, from, middle),
+                        new ReadRanges(corpus, ranges, handler, middle, to));
+                return;
+            }
+            MappedCorpus.LineCursor line;
+            try {
+                line = corpus.open(ranges.get(from));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Worker worker = workers.get();
+            int[][] board = new int[9][9];
+            while (line.nextLine()) {
+                int size = line.boardSize();
+                if (size != 0 && board.length != size) {
+                    board = new int[size][size];
+                }
+                if (size == 0 || !line.parse(board)) {
+                    handler.line(from, line, null, SodukuSolver.SolveResults.NOT_TESTED);
+                } else {
+                    handler.line(from, line, board, worker.solve(board, timeLimitNanos));
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the lines read by solveRanges
+     */
+    public interface LineHandler {
+        /**
+         * @param range  the index of the range the line is from
+         * @param line   a cursor positioned at the line, only valid during the call
+         * @param board  the board after the solve attempt, only valid during the call. null if the line is not a board
+         * @param result the result of the solve attempt, NOT_TESTED if the line is not a valid board
+         */
+        void line(int range, MappedCorpus.LineCursor line, int[][] board, SodukuSolver.SolveResults result);
+    }
+
+    /**
+     * The engine of a worker thread and the sum of the stats of the solves it has made
+     */
+    private static class Worker {
+        private final SodukuEngine engine;
+        private final SolveStats totalStats;
+        private final boolean rateDifficulty;
+        // Restarted for every board then there is a time limit
+        private final SolveDeadline deadline = SolveDeadline.cancellable();
+
+        Worker(SodukuEngine engine, boolean collectStats, SolutionCache cache, boolean rateDifficulty) {
+            this.engine = engine;
+            // The rating of the engine sums up all of its solves by itself
+            this.rateDifficulty = rateDifficulty && engine instanceof SodukuSolver;
+            if (this.rateDifficulty) {
+                ((SodukuSolver) engine).setRateDifficulty(true);
+            }
+            if (cache != null && engine instanceof SodukuSolver) {
+                ((SodukuSolver) engine).setSolutionCache(cache);
+            }
+            if (collectStats && engine instanceof SodukuSolver) {
+                ((SodukuSolver) engine).setCollectStats(true);
+                totalStats = new SolveStats();
+            } else {
+                totalStats = null;
+            }
+        }
+
+        /**
+         * Solves board in place with the engine of the worker
+         *
+         * @param timeLimitNanos the longest time the solve may take, 0 for no limit
+         * @return the result of the solve attempt, NOT_TESTED if board is not a valid playfield
+         */
+        SodukuSolver.SolveResults solve(int[][] board, long timeLimitNanos) {
+            if (!engine.setPlayfield(board)) {
+                return SodukuSolver.SolveResults.NOT_TESTED;
+            }
+            try {
+                if (timeLimitNanos > 0) {
+                    deadline.restart(timeLimitNanos, TimeUnit.NANOSECONDS);
+                    engine.solve(deadline);
+                } else {
+                    engine.solve(null);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            // The engine solves a copy of its own, copy the result back into the board
+            int[][] solved = engine.getPlayfield();
+            for (int r = 0; r < solved.length; r++) {
+                System.arraycopy(solved[r], 0, board[r], 0, solved.length);
+            }
+            if (totalStats != null) {
+                totalStats.add(((SodukuSolver) engine).getStats());
+            }
+            return engine.getSolveResult();
+        }
+    }
+}
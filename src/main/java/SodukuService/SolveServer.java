@@ -0,0 +1,300 @@
+package main.java.SodukuService;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import main.java.SodukuSolver.SodukuEngine;
+import main.java.SodukuSolver.SodukuSolverPool;
+import main.java.SodukuSolver.SolveDeadline;
+import main.java.SodukuSolver.SolverBackend;
+import main.java.SodukuUtils.SodukuLineFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A HTTP service solving soduku boards, built on the HTTP server of the JDK. Every request is handled by its own
+ * virtual thread if the JDK has them (Java 21 and later), otherwise by a thread pool with a few threads per core.
+ * <pre>
+ *     GET  /solve?board=...  solves one board
+ *     POST /solve            solves the board in the body
+ *     POST /batch            solves every board in the body, one per line
+ *     GET  /stats            number of requests and boards handled and the average times
+ * </pre>
+ * The boards use the line format of BatchMain and the response has one line per board: the board after the solve
+ * attempt, the SolveResults value and the time the solve took in microseconds, separated by spaces. Lines that are
+ * not boards gets INVALID instead of a result, empty lines and lines starting with '#' are skipped. A /solve request
+ * without any board gets the status 400. If the request is interrupted while waiting for a engine the status is 503, and
+ * if the engine fails the status is 500. The headers X-Request-Micros and X-Solve-Micros tells the time spent on the
+ * whole request and on solving.
+ * <p>
+ * There is one engine per core in a SodukuSolverPool, requests that arrive then all of them are busy waits for one.
+ * <p>
+ * With a timeout all boards of a request must be solved within that time, the boards that are not get the result
+ * TIMED_OUT and the cells filled in without guessing.
+ * <pre>
+ * usage: SolveServer [-port n] [-engine TECHNIQUES|DANCING_LINKS|AUTO] [-timeout ms]
+ * </pre>
+ */
+public class SolveServer {
+
+    /**
+     * The largest request body accepted, about 400 000 9x9 boards
+     */
+    public static final int MAX_BODY_BYTES = 32 << 20;
+
+    static {
+        // Without this the small responses waits for delayed TCP acknowledgements, costing up to 40 ms per request.
+        // It is read then the first HttpServer is created so it must be set before that.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    // A engine is only used by one request at a time, requests wait for one if all cores are solving
+    private final SodukuSolverPool engines;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong boards = new AtomicLong();
+    private final AtomicLong requestNanos = new AtomicLong();
+    private final AtomicLong solveNanos = new AtomicLong();
+
+    /**
+     * Creates the server, call start() to start accepting requests
+     *
+     * @param port          the port to listen on, 0 for any free port
+     * @param backend       the type of engine to solve with
+     * @param timeoutMillis the longest time a request may spend on solving, 0 for no limit
+     * @throws IOException if the port can not be opened
+     */
+    public SolveServer(int port, SolverBackend backend, long timeoutMillis) throws IOException {
+        this.timeoutMillis = timeoutMillis;
+        engines = new SodukuSolverPool(backend, Runtime.getRuntime().availableProcessors());
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/solve", exchange -> handle(exchange, false));
+        server.createContext("/batch", exchange -> handle(exchange, true));
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 8080;
+        SolverBackend backend = SolverBackend.AUTO;
+        long timeoutMillis = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-engine") && i + 1 < args.length) {
+                backend = SolverBackend.valueOf(args[++i]);
+            } else if (args[i].equals("-timeout") && i + 1 < args.length) {
+                timeoutMillis = Long.parseLong(args[++i]);
+            } else {
+                System.err.println("usage: SolveServer [-port n] [-engine TECHNIQUES|DANCING_LINKS|AUTO] [-timeout ms]");
+                System.exit(2);
+            }
+        }
+        SolveServer solveServer = new SolveServer(port, backend, timeoutMillis);
+        solveServer.start();
+        System.err.println("Listening on port " + solveServer.getPort());
+    }
+
+    /**
+     * Virtual threads are looked up by reflection so the server also compiles and runs on JDKs without them
+     *
+     * @return a executor running every task on a new virtual thread, or a fixed thread pool if there are none
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to delaySeconds for the running requests to finish and stops the threads
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, boolean batch) throws IOException {
+        long startTime = System.nanoTime();
+        try {
+            String body;
+            String method = exchange.getRequestMethod();
+            if (method.equals("POST")) {
+                body = readBody(exchange.getRequestBody());
+                if (body == null) {
+                    sendText(exchange, 413, "The body is larger than " + MAX_BODY_BYTES + " bytes\n");
+                    return;
+                }
+            } else if (method.equals("GET") && !batch) {
+                body = queryParameter(exchange.getRequestURI().getRawQuery(), "board");
+            } else {
+                exchange.getResponseHeaders().set("Allow", batch ? "POST" : "GET, POST");
+                sendText(exchange, 405, "Method not allowed\n");
+                return;
+            }
+
+            SodukuEngine engine;
+            try {
+                engine = engines.borrow();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendText(exchange, 503, "Interrupted while waiting for a free engine\n");
+                return;
+            }
+            StringBuilder response = new StringBuilder(body.length() + 64);
+            long solveTime;
+            try {
+                solveTime = solveLines(engine, body, batch, response);
+            } catch (Exception e) {
+                sendText(exchange, 500, "Solving failed: " + e + "\n");
+                return;
+            } finally {
+                engines.giveBack(engine);
+            }
+            if (!batch && response.length() == 0) {
+                sendText(exchange, 400, "No board given, use ?board=... or put the board in the body\n");
+                return;
+            }
+            long requestTime = System.nanoTime() - startTime;
+            requests.incrementAndGet();
+            requestNanos.addAndGet(requestTime);
+            solveNanos.addAndGet(solveTime);
+            exchange.getResponseHeaders().set("X-Solve-Micros", Long.toString(solveTime / 1000));
+            exchange.getResponseHeaders().set("X-Request-Micros", Long.toString(requestTime / 1000));
+            sendText(exchange, 200, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Solves the boards of body and appends one line per board to response
+     *
+     * @param engine a engine borrowed from the pool, it is not given back
+     * @param batch  false to only solve the first board
+     * @return the time spent solving in nanoseconds
+     * @throws Exception if the engine fails to solve a board
+     */
+    private long solveLines(SodukuEngine engine, String body, boolean batch, StringBuilder response) throws Exception {
+        SolveDeadline deadline = timeoutMillis > 0 ? SolveDeadline.after(timeoutMillis, TimeUnit.MILLISECONDS) : null;
+        int[][] board = new int[9][9];
+        long solveTime = 0;
+        int start = 0;
+        while (start < body.length()) {
+            int end = body.indexOf('\n', start);
+            if (end == -1) {
+                end = body.length();
+            }
+            String line = body.substring(start, end).trim();
+            start = end + 1;
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int size = SodukuLineFormat.boardSize(line);
+            if (size != 0 && board.length != size) {
+                board = new int[size][size];
+            }
+            if (size == 0 || !SodukuLineFormat.parse(line, board) || !engine.setPlayfield(board)) {
+                response.append(line).append(" INVALID\n");
+            } else {
+                long solveStart = System.nanoTime();
+                engine.solve(deadline);
+                long time = System.nanoTime() - solveStart;
+                solveTime += time;
+                SodukuLineFormat.append(engine.getPlayfield(), response);
+                response.append(' ').append(engine.getSolveResult().name())
+                        .append(' ').append(time / 1000).append('\n');
+            }
+            boards.incrementAndGet();
+            if (!batch) {
+                break;
+            }
+        }
+        return solveTime;
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            long requestCount = requests.get();
+            long divisor = Math.max(1, requestCount);
+            String stats = "requests: " + requestCount + "\nboards: " + boards.get()
+                    + "\naverage request micros: " + requestNanos.get() / divisor / 1000
+                    + "\naverage solve micros: " + solveNanos.get() / divisor / 1000
+                    + "\nengines: " + engines.getIdle() + " idle, " + engines.getAvailable() + " of "
+                    + engines.getCapacity() + " available\n";
+            sendText(exchange, 200, stats);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return the body as text or null if it is larger than MAX_BODY_BYTES
+     */
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 16];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (bytes.size() + read > MAX_BODY_BYTES) {
+                return null;
+            }
+            bytes.write(buffer, 0, read);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the decoded value of the parameter name in the query or "" if it is not there
+     */
+    private static String queryParameter(String query, String name) throws IOException {
+        if (query == null) {
+            return "";
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith(name + "=")) {
+                return URLDecoder.decode(parameter.substring(name.length() + 1), "US-ASCII");
+            }
+        }
+        return "";
+    }
+
+    private static void sendText(HttpExchange exchange, int status, CharSequence text) throws IOException {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
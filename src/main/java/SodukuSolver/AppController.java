@@ -2,6 +2,7 @@ package main.java.SodukuSolver;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
@@ -14,6 +15,8 @@ import main.java.SodukuUtils.SodukuCoordUtils;
 import main.java.SodukuUtils.SodukuLoader;
 import org.apache.commons.lang3.time.StopWatch;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public class AppController {
@@ -21,14 +24,30 @@ public class AppController {
     public Button buttonDefaultSoduku;
     public Button create;
     public Button solve;
+    public Button cancel;
     public GridPane grid11;
     public ListView<String> listDefaultSoduku;
     public TextField checkResult;
     public TextField out;
+    public TextField maxTime;
 
-    private SodukuSolver sodukuSolver = new SodukuSolver();
+    /**
+     * Minimum time between two progress updates shown in the window
+     */
+    private static final long PROGRESS_UPDATE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private SodukuEngine sodukuSolver = SolverBackend.AUTO.newEngine();
     private boolean isBoardCreated = false;
 
+    // Solves are run on this thread so the window is not frozen by a hard board, a daemon so it does not keep the
+    // program running then the window is closed
+    private final ExecutorService solveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "soduku-solve");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private SolveTask runningSolve;
+
     @FXML
     void CreatePlayfield() {
         checkResult.setText("");
@@ -129,36 +148,93 @@ public class AppController {
     public void solve(ActionEvent actionEvent) {
         checkResult.setText("");
         out.setText("");
-        if (! CheckCells()) {
+        if (runningSolve != null || ! CheckCells()) {
             actionEvent.consume();
             return;
         }
+        long maxNanos = 0;
+        if (!maxTime.getText().trim().isEmpty()) {
+            try {
+                maxNanos = (long) (Double.parseDouble(maxTime.getText().trim()) * 1e9);
+            } catch (NumberFormatException e) {
+                maxNanos = -1;
+            }
+            if (maxNanos <= 0) {
+                checkResult.setText("The max time must be a number of seconds larger than zero");
+                actionEvent.consume();
+                return;
+            }
+        }
 
-        StopWatch timer = new StopWatch();
-        timer.start();
-        try {
-            sodukuSolver.solve();
-        } catch (Exception e) {
+        // The engine must not be touched from this thread until the task is done, so everything using it is disabled
+        SolveTask task = new SolveTask(sodukuSolver, maxNanos);
+        task.messageProperty().addListener((observable, oldMessage, message) -> out.setText(message));
+        task.setOnSucceeded(event -> solveDone(task));
+        task.setOnFailed(event -> {
+            Throwable e = task.getException();
             e.printStackTrace();
             checkResult.setText(e.toString());
             out.setText("ERROR!");
-            updatePlayfield();
-            return;
+            endSolve();
+        });
+        runningSolve = task;
+        setSolving(true);
+        solveExecutor.submit(task);
+        actionEvent.consume();
+    }
+
+    /**
+     * Stops the running solve, the window is updated then the solver has noticed it
+     */
+    public void cancelSolve(ActionEvent actionEvent) {
+        if (runningSolve != null) {
+            runningSolve.deadline.cancel();
+            out.setText("Cancelling...");
         }
-        timer.stop();
-        SodukuSolver.SolveResults res = sodukuSolver.getSolveResult();
-        switch (res){
-            case SOLVE_FAILED: checkResult.setText("The solver failed to solve the soduku, but it may be solvable");
-                break;
-            case SOLVED: checkResult.setText("Solve Successful");
-                break;
-            case NOT_SOLVABLE: checkResult.setText("There are no solutions for this soduku");
-                break;
-            case MULTIPLE_SOLUTIONS: checkResult.setText("There are more than one solution for this soduku");
+        actionEvent.consume();
+    }
+
+    /**
+     * Shows the result of a finished solve, called on the JavaFX thread
+     */
+    private void solveDone(SolveTask task) {
+        SodukuSolver.SolveResults res = task.getValue();
+        if (res == SodukuSolver.SolveResults.TIMED_OUT) {
+            // The playfield shows the cells that was filled in before the solve was stopped
+            if (task.deadline.isCancelled()) {
+                checkResult.setText("The solve was cancelled");
+            } else {
+                checkResult.setText("The solve did not finish within " + maxTime.getText().trim() + " seconds");
+            }
+        } else {
+            switch (res) {
+                case SOLVE_FAILED: checkResult.setText("The solver failed to solve the soduku, but it may be solvable");
+                    break;
+                case SOLVED: checkResult.setText("Solve Successful");
+                    break;
+                case NOT_SOLVABLE: checkResult.setText("There are no solutions for this soduku");
+                    break;
+                case MULTIPLE_SOLUTIONS: checkResult.setText("There are more than one solution for this soduku");
+            }
         }
-        out.setText("Done in " + timer.getTime(TimeUnit.MICROSECONDS) + " micro seconds");
+        out.setText("Done in " + task.getMicros() + " micro seconds");
+        endSolve();
+    }
+
+    private void endSolve() {
+        runningSolve = null;
+        setSolving(false);
         updatePlayfield();
-        actionEvent.consume();
+    }
+
+    /**
+     * Enables or disables the buttons that would change the board or start another solve
+     */
+    private void setSolving(boolean solving) {
+        solve.setDisable(solving);
+        create.setDisable(solving);
+        buttonDefaultSoduku.setDisable(solving);
+        cancel.setDisable(!solving);
     }
 
     public void loadDefaultSoduku(ActionEvent actionEvent) {
@@ -169,4 +245,51 @@ public class AppController {
         updatePlayfield();
         actionEvent.consume();
     }
+
+    /**
+     * Runs a solve on the solve thread. The progress of the engine is shown as the message of the task. The solve is
+     * stopped by its SolveDeadline, then the time is up or the deadline is cancelled. The solve always runs to its end
+     * (a stopped solve ends quickly) so the engine is free to use again then the task is done, that is why the
+     * deadline is cancelled instead of the task.
+     */
+    private static class SolveTask extends Task<SodukuSolver.SolveResults> {
+        private final SodukuEngine engine;
+        private final SolveDeadline deadline;
+        private long micros; // written before call() returns, so it can be read then the task has succeeded
+
+        /**
+         * @param maxNanos the longest time the solve may take or 0 for no limit
+         */
+        SolveTask(SodukuEngine engine, long maxNanos) {
+            this.engine = engine;
+            deadline = maxNanos > 0 ? SolveDeadline.after(maxNanos, TimeUnit.NANOSECONDS) : SolveDeadline.cancellable();
+        }
+
+        @Override
+        protected SodukuSolver.SolveResults call() throws Exception {
+            StopWatch timer = new StopWatch();
+            timer.start();
+            long[] lastUpdate = {System.nanoTime()};
+            engine.setProgressListener((guesses, cellsFilled, cellCount) -> {
+                long now = System.nanoTime();
+                if (now - lastUpdate[0] > PROGRESS_UPDATE_NANOS) {
+                    lastUpdate[0] = now;
+                    updateMessage("Guesses: " + guesses + ", cells filled: " + cellsFilled + "/" + cellCount);
+                }
+                return true;
+            });
+            try {
+                engine.solve(deadline);
+            } finally {
+                engine.setProgressListener(null);
+            }
+            timer.stop();
+            micros = timer.getTime(TimeUnit.MICROSECONDS);
+            return engine.getSolveResult();
+        }
+
+        long getMicros() {
+            return micros;
+        }
+    }
 }
@@ -0,0 +1,406 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.SodukuCoordUtils;
+import main.java.SodukuUtils.SodukuUnits;
+
+import java.util.Arrays;
+
+/**
+ * Solves soduku by turning it into a exact cover problem and solving that with Donald Knuth's Algorithm X using
+ * Dancing Links.
+ * <p>
+ * Every option (placing a number in a cell) covers four constraints: the cell is filled, the row has the number,
+ * the column has the number and the square has the number. A solution is a set of options that covers all 324
+ * constraints exactly once. The links between the 729 options and the 324 constraints are built once then the
+ * solver is created and are unlinked and relinked in place during the search, nothing is allocated while solving.
+ * <p>
+ * 4x4, 16x16 and 25x25 boards works the same way with size^3 options and 4 * size^2 constraints, the links are built
+ * again then a playfield of another size than the last one is set.
+ */
+public class DancingLinksSolver implements SodukuEngine {
+
+    private static final int ROOT = 0;
+
+    /**
+     * Number of guesses between the calls to the SolveProgressListener, a guess only costs a few hundred nanoseconds
+     */
+    public static final int PROGRESS_INTERVAL = 1024;
+
+    /**
+     * The SolveDeadline is checked every DEADLINE_CHECK_MASK + 1 guesses, often enough to stop within microseconds
+     */
+    private static final int DEADLINE_CHECK_MASK = 63;
+
+    // The board size the links are built for
+    private int boardSize;
+    private int columns;
+    private int firstOptionNode;
+
+    // Node 0 is the root, nodes 1-columns are the column headers and the rest are four nodes for every option
+    private int[] left;
+    private int[] right;
+    private int[] up;
+    private int[] down;
+    private int[] column;
+    private int[] size;
+
+    private int[] givenOptions;
+    private int[] partialSolution;
+    private int[] firstSolution;
+    private int solutionsFound;
+    private int maxSolutions;
+    private int givenCount;
+    private long guesses;
+    private boolean stopped;
+    private boolean timedOut;
+    private SolveDeadline deadline; // only set during solve(SolveDeadline)
+    private SolveProgressListener progressListener;
+
+    private int[][] playfield = new int[9][9];
+    private boolean isInitialized;
+    private SodukuSolver.SolveResults solveResult;
+
+    /**
+     * Default constructor, call setPlayfield before solving
+     */
+    public DancingLinksSolver() {
+        isInitialized = false;
+        solveResult = SodukuSolver.SolveResults.NOT_TESTED;
+        buildLinks(SodukuUnits.STANDARD);
+    }
+
+    /**
+     * Sets up the playfield with given 9x9 2-dimensional int-array
+     *
+     * @param array: a 9x9 int-array containing values between 0 and 9. 0 means the value is not given initially.
+     *               Can also be a 4x4, 16x16 or 25x25 array with values up to 4, 16 or 25.
+     */
+    public DancingLinksSolver(int[][] array) {
+        this();
+        copyToPlayfield(array);
+        isInitialized = true;
+    }
+
+    @Override
+    public boolean setPlayfield(int[][] newPlayfield) {
+        if (SodukuUnits.forPlayfield(newPlayfield) == null) {
+            return false;
+        }
+        copyToPlayfield(newPlayfield);
+        isInitialized = true;
+        solveResult = SodukuSolver.SolveResults.NOT_TESTED;
+        return true;
+    }
+
+    /**
+     * Copies board into the playfield owned by the solver, a new one is only allocated if the size has changed
+     */
+    private void copyToPlayfield(int[][] board) {
+        if (playfield.length != board.length) {
+            playfield = new int[board.length][board.length];
+        }
+        for (int r = 0; r < board.length; r++) {
+            System.arraycopy(board[r], 0, playfield[r], 0, board.length);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int[] row : playfield) {
+            Arrays.fill(row, 0);
+        }
+        isInitialized = false;
+        solveResult = SodukuSolver.SolveResults.NOT_TESTED;
+        progressListener = null;
+    }
+
+    @Override
+    public int[][] getPlayfield() {
+        return playfield;
+    }
+
+    @Override
+    public SodukuSolver.SolveResults getSolveResult() {
+        return solveResult;
+    }
+
+    @Override
+    public void setProgressListener(SolveProgressListener listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * Tries to solve the set grid. The search continues after the first solution to see if there are more, if there is
+     * the result is MULTIPLE_SOLUTIONS and the playfield contains the first found solution.
+     */
+    @Override
+    public void solve() throws Exception {
+        solve(null);
+    }
+
+    /**
+     * Like solve() but stops with the result TIMED_OUT if deadline expires first. The search only fills in cells by
+     * guessing so the playfield is then left as it was.
+     *
+     * @param deadline when to stop trying, null for no limit
+     */
+    @Override
+    public void solve(SolveDeadline deadline) throws Exception {
+        if (!isInitialized) {
+            return;
+        }
+        this.deadline = deadline;
+        int givenCount;
+        try {
+            givenCount = searchSolutions(2);
+        } finally {
+            this.deadline = null;
+        }
+        if (stopped) {
+            solveResult = timedOut ? SodukuSolver.SolveResults.TIMED_OUT : SodukuSolver.SolveResults.SOLVE_FAILED;
+            return;
+        }
+        if (solutionsFound == 0) {
+            solveResult = SodukuSolver.SolveResults.NOT_SOLVABLE;
+            return;
+        }
+        int n = boardSize;
+        for (int i = 0; i < n * n - givenCount; i++) {
+            int option = firstSolution[i];
+            playfield[option / (n * n)][option / n % n] = option % n + 1;
+        }
+        solveResult = solutionsFound > 1 ? SodukuSolver.SolveResults.MULTIPLE_SOLUTIONS : SodukuSolver.SolveResults.SOLVED;
+    }
+
+    /**
+     * Counts the solutions of the set grid but stops counting at maxSolutions. The playfield and the result of the
+     * last solve() are not changed. Use countSolutions(2) == 1 to check if a soduku has exactly one solution.
+     *
+     * @param maxSolutions the number of solutions to find before stopping the search
+     * @return the number of solutions, at most maxSolutions. If the SolveProgressListener stopped the search it is the
+     * number found before that
+     * @throws Exception if this instance of the class has not been initialized
+     */
+    public int countSolutions(int maxSolutions) throws Exception {
+        if (!isInitialized) {
+            throw new Exception("Class not initialized, playfield not set");
+        }
+        searchSolutions(maxSolutions);
+        return solutionsFound;
+    }
+
+    /**
+     * Selects the given numbers of the playfield and searches for up to maxSolutions solutions. The options of the
+     * first solution found are left in firstSolution.
+     *
+     * @return the number of given numbers
+     */
+    private int searchSolutions(int maxSolutions) {
+        if (playfield.length != boardSize) {
+            buildLinks(SodukuUnits.forBoardSize(playfield.length));
+        }
+        int n = boardSize;
+
+        // Select the options of the given numbers, a option that is no longer available means the number is already
+        // given in the same row, column or square.
+
+        int givenCount = 0;
+        boolean givenConflict = false;
+        for (int r = 0; r < n && !givenConflict; r++) {
+            for (int c = 0; c < n; c++) {
+                if (playfield[r][c] == 0) {
+                    continue;
+                }
+                int option = (r * n + c) * n + playfield[r][c] - 1;
+                if (!isOptionAvailable(option)) {
+                    givenConflict = true;
+                    break;
+                }
+                selectOption(option);
+                givenOptions[givenCount++] = option;
+            }
+        }
+
+        solutionsFound = 0;
+        this.maxSolutions = maxSolutions;
+        this.givenCount = givenCount;
+        guesses = 0;
+        stopped = false;
+        timedOut = false;
+        if (!givenConflict) {
+            search(0);
+        }
+
+        for (int i = givenCount - 1; i >= 0; i--) {
+            unselectOption(givenOptions[i]);
+        }
+        return givenCount;
+    }
+
+    /**
+     * Algorithm X. Picks the constraint with the fewest options left and tries each of the options in turn.
+     *
+     * @param depth the number of options selected by the search so far
+     * @return true if maxSolutions solutions has been found, the deadline expired or the SolveProgressListener stopped
+     * the search and the search should stop, false otherwise
+     */
+    private boolean search(int depth) {
+        if (right[ROOT] == ROOT) {
+            if (solutionsFound++ == 0) {
+                System.arraycopy(partialSolution, 0, firstSolution, 0, depth);
+            }
+            return solutionsFound >= maxSolutions;
+        }
+
+        int best = right[ROOT];
+        for (int col = right[best]; col != ROOT && size[best] > 1; col = right[col]) {
+            if (size[col] < size[best]) {
+                best = col;
+            }
+        }
+        if (size[best] == 0) {
+            return false;
+        }
+
+        boolean done = false;
+        cover(best);
+        for (int node = down[best]; node != best && !done; node = down[node]) {
+            if ((++guesses & DEADLINE_CHECK_MASK) == 0 && deadline != null && deadline.isExpired()) {
+                timedOut = true;
+                stopped = true;
+                break;
+            }
+            if (guesses % PROGRESS_INTERVAL == 0 && progressListener != null
+                    && !progressListener.progress(guesses, givenCount + depth, boardSize * boardSize)) {
+                stopped = true;
+                break;
+            }
+            partialSolution[depth] = (node - firstOptionNode) / 4;
+            for (int j = right[node]; j != node; j = right[j]) {
+                cover(column[j]);
+            }
+            done = search(depth + 1);
+            for (int j = left[node]; j != node; j = left[j]) {
+                uncover(column[j]);
+            }
+        }
+        uncover(best);
+        return done || stopped;
+    }
+
+    /**
+     * @param option the option to check
+     * @return true if none of the constraints of option has been covered
+     */
+    private boolean isOptionAvailable(int option) {
+        int first = firstOptionNode + option * 4;
+        for (int k = 0; k < 4; k++) {
+            int col = column[first + k];
+            if (right[left[col]] != col) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void selectOption(int option) {
+        int first = firstOptionNode + option * 4;
+        for (int k = 0; k < 4; k++) {
+            cover(column[first + k]);
+        }
+    }
+
+    private void unselectOption(int option) {
+        int first = firstOptionNode + option * 4;
+        for (int k = 3; k >= 0; k--) {
+            uncover(column[first + k]);
+        }
+    }
+
+    /**
+     * Removes col from the header list and all options covering col from the other columns
+     */
+    private void cover(int col) {
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    /**
+     * Reverts cover(col), must be called in the reverse order of the cover calls
+     */
+    private void uncover(int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[col]] = col;
+        left[right[col]] = col;
+    }
+
+    /**
+     * Builds the full exact cover matrix with every option available for the board size units describes
+     *
+     * @param units the tables of the board size
+     */
+    private void buildLinks(SodukuUnits units) {
+        int n = units.getSize();
+        int cells = units.getCellCount();
+        int options = cells * n;
+        boardSize = n;
+        columns = 4 * cells;
+        firstOptionNode = columns + 1;
+        int nodes = firstOptionNode + options * 4;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        size = new int[columns + 1];
+        givenOptions = new int[cells];
+        partialSolution = new int[cells];
+        firstSolution = new int[cells];
+
+        for (int col = 0; col <= columns; col++) {
+            left[col] = col == 0 ? columns : col - 1;
+            right[col] = col == columns ? 0 : col + 1;
+            up[col] = col;
+            down[col] = col;
+            column[col] = col;
+        }
+
+        int[] columnsOfOption = new int[4];
+        for (int option = 0; option < options; option++) {
+            int r = option / cells;
+            int c = option / n % n;
+            int digit = option % n;
+            columnsOfOption[0] = 1 + r * n + c;
+            columnsOfOption[1] = 1 + cells + r * n + digit;
+            columnsOfOption[2] = 1 + 2 * cells + c * n + digit;
+            columnsOfOption[3] = 1 + 3 * cells + SodukuCoordUtils.coordToSquareNr(r, c, units.getBoxSize()) * n + digit;
+
+            int first = firstOptionNode + option * 4;
+            for (int k = 0; k < 4; k++) {
+                int node = first + k;
+                int col = columnsOfOption[k];
+                column[node] = col;
+                left[node] = first + (k + 3) % 4;
+                right[node] = first + (k + 1) % 4;
+                up[node] = up[col];
+                down[node] = col;
+                down[up[col]] = node;
+                up[col] = node;
+                size[col]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package main.java.SodukuSolver;
+
+/**
+ * How hard a soduku was to solve, collected when SodukuSolver.setRateDifficulty(true) has been called. For every
+ * Technique the number of times it made progress before the first guess is counted, together with the number of
+ * guesses made. The hardest technique used and the score are calculated from them:
+ * <pre>
+ *     score = 10 * weight of the hardest technique + sum of weight * uses of every technique + GUESS_WEIGHT * guesses
+ * </pre>
+ * there the weight of the hardest technique is GUESS_WEIGHT if any guess was made. Counting only costs a increment
+ * per technique run, nothing is timed.
+ * <p>
+ * Ratings from many solves can be summed with add(), the per level counts and the average and largest score then
+ * describes all of them while the other values are the ones of the last solve.
+ */
+public class DifficultyRating {
+
+    /**
+     * The weight of a guess, larger than the weight of any Technique
+     */
+    public static final int GUESS_WEIGHT = 20;
+
+    private static final int TECHNIQUES = Technique.values().length;
+
+    private final long[] uses = new long[TECHNIQUES];
+    private long guesses;
+    // Number of rated solves per hardest level: no technique, every technique in order and guessing
+    private final long[] levelCounts = new long[TECHNIQUES + 2];
+    private long ratedSolves;
+    private long scoreSum;
+    private long maxScore;
+
+    /**
+     * Sets the counters of the last solve to zero, the summed up counts are kept
+     */
+    void reset() {
+        for (int i = 0; i < TECHNIQUES; i++) {
+            uses[i] = 0;
+        }
+        guesses = 0;
+    }
+
+    void recordUse(Technique technique) {
+        uses[technique.ordinal()]++;
+    }
+
+    void recordGuess() {
+        guesses++;
+    }
+
+    /**
+     * Called at the end of every rated solve to add it to the summed up counts
+     */
+    void recordSolve() {
+        ratedSolves++;
+        levelCounts[level()]++;
+        long score = getScore();
+        scoreSum += score;
+        maxScore = Math.max(maxScore, score);
+    }
+
+    /**
+     * Adds the summed up counts of other to this rating, the counters of the last solve are taken from other
+     *
+     * @param other the rating to add
+     */
+    public void add(DifficultyRating other) {
+        System.arraycopy(other.uses, 0, uses, 0, TECHNIQUES);
+        guesses = other.guesses;
+        for (int i = 0; i < levelCounts.length; i++) {
+            levelCounts[i] += other.levelCounts[i];
+        }
+        ratedSolves += other.ratedSolves;
+        scoreSum += other.scoreSum;
+        maxScore = Math.max(maxScore, other.maxScore);
+    }
+
+    /**
+     * @return 0 if no technique was used, the ordinal of the hardest technique + 1 or TECHNIQUES + 1 if a guess was
+     * made
+     */
+    private int level() {
+        if (guesses > 0) {
+            return TECHNIQUES + 1;
+        }
+        Technique hardest = getHardestTechnique();
+        return hardest == null ? 0 : hardest.ordinal() + 1;
+    }
+
+    /**
+     * @param technique the technique to get the count for
+     * @return the number of times technique made progress in the last solve, guesses not included
+     */
+    public long getUses(Technique technique) {
+        return uses[technique.ordinal()];
+    }
+
+    /**
+     * @return the number of guesses made in the last solve, including the ones made to prove that the solution is
+     * unique
+     */
+    public long getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * @return true if the techniques could not solve the last soduku without guessing
+     */
+    public boolean needsGuessing() {
+        return guesses > 0;
+    }
+
+    /**
+     * @return the technique with the largest weight used in the last solve or null if no technique was used
+     */
+    public Technique getHardestTechnique() {
+        Technique hardest = null;
+        for (Technique technique : Technique.values()) {
+            if (uses[technique.ordinal()] > 0 && (hardest == null || technique.getWeight() > hardest.getWeight())) {
+                hardest = technique;
+            }
+        }
+        return hardest;
+    }
+
+    /**
+     * @return the difficulty score of the last solve, see the class description
+     */
+    public long getScore() {
+        long score = guesses * GUESS_WEIGHT;
+        for (Technique technique : Technique.values()) {
+            score += uses[technique.ordinal()] * technique.getWeight();
+        }
+        if (guesses > 0) {
+            score += 10 * GUESS_WEIGHT;
+        } else {
+            Technique hardest = getHardestTechnique();
+            if (hardest != null) {
+                score += 10 * hardest.getWeight();
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @return the name of the hardest technique of the last solve, GUESSING if a guess was made or NONE if nothing
+     * was needed
+     */
+    public String getLevelName() {
+        return levelName(level());
+    }
+
+    private static String levelName(int level) {
+        if (level == 0) {
+            return "NONE";
+        }
+        return level > TECHNIQUES ? "GUESSING" : Technique.values()[level - 1].name();
+    }
+
+    /**
+     * @return the number of solves these ratings are summed up from
+     */
+    public long getRatedSolves() {
+        return ratedSolves;
+    }
+
+    /**
+     * @param technique a technique
+     * @return the number of solves there technique was the hardest technique used and no guess was made
+     */
+    public long getSolvesNeeding(Technique technique) {
+        return levelCounts[technique.ordinal() + 1];
+    }
+
+    /**
+     * @return the number of solves there a guess was made
+     */
+    public long getSolvesNeedingGuesses() {
+        return levelCounts[TECHNIQUES + 1];
+    }
+
+    /**
+     * @return the average score of all rated solves, 0 if there are none
+     */
+    public double getAverageScore() {
+        return ratedSolves == 0 ? 0 : (double) scoreSum / ratedSolves;
+    }
+
+    /**
+     * @return the largest score of all rated solves
+     */
+    public long getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * @return the number of solves per hardest level and the average and largest score
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-18s %12s%n", "hardest", "boards"));
+        for (int level = 0; level < levelCounts.length; level++) {
+            if (levelCounts[level] > 0) {
+                sb.append(String.format("%-18s %12d%n", levelName(level), levelCounts[level]));
+            }
+        }
+        sb.append("rated: ").append(ratedSolves)
+                .append(String.format(", average score: %.1f", getAverageScore()))
+                .append(", max score: ").append(maxScore);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+import main.java.SodukuUtils.SodukuUnits;
+
+/**
+ * Fish: a number that on n rows can only be placed in the same n columns. Each of the n rows must have the number in
+ * one of those columns, so the columns get it from these rows and it can be removed from the other cells of the
+ * columns. The same holds with rows and columns switched. n = 2 is X-Wing, 3 Swordfish and 4 Jellyfish.
+ * <p>
+ * For every number a bitboard is kept with one mask per row of the columns the number can be placed in, and one mask
+ * per column of the rows. The fish are found by trying every combination of n rows (or columns) where the number can
+ * be placed in 2 to n cells and or-ing their masks, a combination is dropped as soon as the union has more than n
+ * bits.
+ * <p>
+ * If a number is missing on m rows a fish on n rows is the same as a fish on the other m - n columns and removes the
+ * same possibilities. Numbers missing on less than 2n rows are therefore skipped, there the fish is found by a smaller
+ * Fish or by HiddenSingles, which must run before this technique as they do in TechniquePipeline.defaultTechniques().
+ */
+public class Fish implements SolvingTechnique {
+
+    private static final int MAX_SIZE = SodukuUnits.MAX_BOX_SIZE * SodukuUnits.MAX_BOX_SIZE;
+
+    private final int fishSize;
+    // [number][row] mask of the columns number can be placed in on the row, and [number][column] of the rows
+    private final int[][] rowBoards = new int[MAX_SIZE + 1][MAX_SIZE];
+    private final int[][] colBoards = new int[MAX_SIZE + 1][MAX_SIZE];
+    // The rows or columns that can be part of a fish of the number being searched
+    private final int[] candidateLines = new int[MAX_SIZE];
+    private int candidateCount;
+    private PossibilityGrid possibilities;
+    private int size;
+    private boolean hasPossibilitiesBeenRemoved;
+
+    /**
+     * @param fishSize the number of rows (or columns) of the fish to look for, 2, 3 or 4
+     */
+    public Fish(int fishSize) {
+        if (fishSize < 2 || fishSize > 4) {
+            throw new IllegalArgumentException("Fish size must be 2, 3 or 4, was " + fishSize);
+        }
+        this.fishSize = fishSize;
+    }
+
+    @Override
+    public Technique getTechnique() {
+        switch (fishSize) {
+            case 2:
+                return Technique.X_WING;
+            case 3:
+                return Technique.SWORDFISH;
+            default:
+                return Technique.JELLYFISH;
+        }
+    }
+
+    /**
+     * Uses the fish solving techniques to find possibilities that can be removed. A fish spans the whole board so
+     * everything is searched as soon as anything has changed.
+     *
+     * @param possibilities the possibilities to work on
+     * @param changedSince  not used, the TechniquePipeline does not run the technique if nothing has changed
+     * @return true if any changes has been made to the possibilities, otherwise false.
+     */
+    @Override
+    public boolean apply(PossibilityGrid possibilities, long changedSince) {
+        this.possibilities = possibilities;
+        hasPossibilitiesBeenRemoved = false;
+        SodukuUnits units = possibilities.getUnits();
+        size = units.getSize();
+        buildBoards();
+
+        for (int number = 1; number <= size; number++) {
+            // A number is missing on as many rows as columns
+            int missingLines = 0;
+            for (int r = 0; r < size; r++) {
+                if (rowBoards[number][r] != 0) {
+                    missingLines++;
+                }
+            }
+            if (missingLines < 2 * fishSize) {
+                continue;
+            }
+            searchLines(rowBoards[number], colBoards[number], number, true);
+            searchLines(colBoards[number], rowBoards[number], number, false);
+        }
+        this.possibilities = null;
+        return hasPossibilitiesBeenRemoved;
+    }
+
+    /**
+     * Fills the bitboards of every number from the possibilities
+     */
+    private void buildBoards() {
+        for (int number = 1; number <= size; number++) {
+            for (int line = 0; line < size; line++) {
+                rowBoards[number][line] = 0;
+                colBoards[number][line] = 0;
+            }
+        }
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int possible = possibilities.getPossible(r, c);
+                while (possible != 0) {
+                    int number = PossibilityGrid.lowestNumber(possible);
+                    rowBoards[number][r] |= 1 << c;
+                    colBoards[number][c] |= 1 << r;
+                    possible &= possible - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Searches for fish with base lines (the lines the number is confined in) in baseBoard
+     *
+     * @param baseBoard  the masks of the number per base line
+     * @param coverBoard the masks of the number per cover line, the lines crossing the base lines
+     * @param baseIsRow  true if the base lines are rows
+     */
+    private void searchLines(int[] baseBoard, int[] coverBoard, int number, boolean baseIsRow) {
+        candidateCount = 0;
+        for (int line = 0; line < size; line++) {
+            int count = Integer.bitCount(baseBoard[line]);
+            if (count >= 2 && count <= fishSize) {
+                candidateLines[candidateCount++] = line;
+            }
+        }
+        if (candidateCount >= fishSize) {
+            search(baseBoard, coverBoard, number, baseIsRow, 0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Adds candidate lines from first and on to the base lines until there are fishSize of them. The bitboards are
+     * updated when possibilities are removed and the union only shrinks then, so a fish found before still holds.
+     *
+     * @param picked the number of base lines so far
+     * @param union  mask of the cover lines the number can be placed on in the base lines
+     * @param base   mask of the base lines
+     */
+    private void search(int[] baseBoard, int[] coverBoard, int number, boolean baseIsRow, int first, int picked,
+                        int union, int base) {
+        for (int i = first; i <= candidateCount - fishSize + picked; i++) {
+            int line = candidateLines[i];
+            int newUnion = union | baseBoard[line];
+            if (Integer.bitCount(newUnion) > fishSize) {
+                continue;
+            }
+            int newBase = base | 1 << line;
+            if (picked + 1 < fishSize) {
+                search(baseBoard, coverBoard, number, baseIsRow, i + 1, picked + 1, newUnion, newBase);
+            } else if (Integer.bitCount(newUnion) == fishSize) {
+                removeFromCoverLines(baseBoard, coverBoard, number, baseIsRow, newUnion, newBase);
+            }
+        }
+    }
+
+    /**
+     * Removes number from the cells of the cover lines in union that are not on any of the base lines
+     */
+    private void removeFromCoverLines(int[] baseBoard, int[] coverBoard, int number, boolean baseIsRow, int union,
+                                      int base) {
+        while (union != 0) {
+            int cover = Integer.numberOfTrailingZeros(union);
+            int others = coverBoard[cover] & ~base;
+            while (others != 0) {
+                int line = Integer.numberOfTrailingZeros(others);
+                int cell = baseIsRow ? line * size + cover : cover * size + line;
+                possibilities.removePossibilities(cell, PossibilityGrid.bit(number));
+                baseBoard[line] &= ~(1 << cover);
+                hasPossibilitiesBeenRemoved = true;
+                others &= others - 1;
+            }
+            coverBoard[cover] &= base;
+            union &= union - 1;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package main.java.SodukuSolver;
+
+/**
+ * Hidden pairs: two numbers that can only be placed in the same two cells of a row, column or square
+ */
+public class HiddenPairs extends HiddenSubsets {
+
+    public HiddenPairs() {
+        super(2);
+    }
+}
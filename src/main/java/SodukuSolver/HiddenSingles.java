@@ -0,0 +1,100 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+import main.java.SodukuUtils.SodukuUnits;
+
+/**
+ * Places a number if it can only be placed in one cell of a row, column or square.
+ * <p>
+ * The numbers that appear exactly once in a unit are found for all numbers at the same time: the masks of the cells
+ * are combined into a mask of the numbers seen at least once and a mask of the numbers seen at least twice, the numbers
+ * in the first but not the second are hidden singles. The placed numbers are written to a buffer that is reused by
+ * every call so nothing is allocated.
+ */
+public class HiddenSingles implements SolvingTechnique {
+
+    private static final int[] UNIT_TYPE_ORDER = {SodukuUnits.SQUARE, SodukuUnits.ROW, SodukuUnits.COLUMN};
+
+    private int[] placedCells = new int[0];
+    private int[] placedValues = new int[0];
+    private int placedCount;
+
+    @Override
+    public Technique getTechnique() {
+        return Technique.HIDDEN_SINGLE;
+    }
+
+    @Override
+    public boolean apply(PossibilityGrid possibilities, long changedSince) {
+        return placeSingles(possibilities, changedSince) > 0;
+    }
+
+    /**
+     * Searches through all rows, columns and squares after numbers that can only be placed in one cell of it and places
+     * them. The placed numbers can be read with getPlacedCell(i) and getPlacedValue(i) until the next call.
+     *
+     * @param possibilities the possibilities to work on
+     * @param changedSince  only rows, columns and squares changed after this change count are searched, -1 for all
+     * @return the number of placed numbers
+     */
+    public int placeSingles(PossibilityGrid possibilities, long changedSince) {
+        SodukuUnits units = possibilities.getUnits();
+        if (placedCells.length != units.getCellCount()) {
+            // A cell can only be placed once so one slot per cell is always enough
+            placedCells = new int[units.getCellCount()];
+            placedValues = new int[units.getCellCount()];
+        }
+        placedCount = 0;
+
+        // Squares first, then rows and columns
+        for (int type : UNIT_TYPE_ORDER) {
+            for (int dimOneRow = 0; dimOneRow < units.getSize(); dimOneRow++) {
+                int unit = units.unit(type, dimOneRow);
+                if (possibilities.getUnitChangeCount(unit) <= changedSince) {
+                    continue;
+                }
+                int[] cells = units.unitCells(unit);
+                int seenOnce = 0;
+                int seenTwice = 0;
+                for (int cell : cells) {
+                    int possible = possibilities.getPossible(cell);
+                    seenTwice |= seenOnce & possible;
+                    seenOnce |= possible;
+                }
+                int singles = seenOnce & ~seenTwice;
+                while (singles != 0) {
+                    int bit = singles & -singles;
+                    singles &= singles - 1;
+                    // Placing an earlier single may have removed this one, then it is not found and nothing is placed
+                    for (int cell : cells) {
+                        if ((possibilities.getPossible(cell) & bit) != 0) {
+                            int value = PossibilityGrid.lowestNumber(bit);
+                            possibilities.place(cell, value);
+                            placedCells[placedCount] = cell;
+                            placedValues[placedCount] = value;
+                            placedCount++;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return placedCount;
+    }
+
+    /**
+     * @param i a index less than the value returned by the last placeSingles call
+     * @return the cell number (row * size + column) of the i:th placed number
+     */
+    public int getPlacedCell(int i) {
+        return placedCells[i];
+    }
+
+    /**
+     * @param i a index less than the value returned by the last placeSingles call
+     * @return the i:th placed number
+     */
+    public int getPlacedValue(int i) {
+        return placedValues[i];
+    }
+}
@@ -0,0 +1,136 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+import main.java.SodukuUtils.SodukuUnits;
+
+/**
+ * Hidden subsets: n numbers that can only be placed in the same n cells of a row, column or square. The n cells must
+ * get those numbers so all other possibilities in them can be removed. n = 2 is hidden pairs, 3 hidden triples and 4
+ * hidden quads.
+ * <p>
+ * For every number a mask of the cells in the unit it can be placed in is made, the subsets are then found by trying
+ * every combination of n numbers that can be placed in 2 to n cells and or-ing their cell masks. A combination is
+ * dropped as soon as the union has more than n cells.
+ * <p>
+ * In a unit with m missing numbers a hidden subset of n numbers is the same as a naked subset of the other m - n
+ * cells and removes the same possibilities. Units with 2n or less missing numbers are therefore skipped, there the
+ * subset is found by NakedSubsets of the same or a smaller size, which must run before this technique as they do in
+ * TechniquePipeline.defaultTechniques().
+ */
+public class HiddenSubsets implements SolvingTechnique {
+
+    private final int subsetSize;
+    // a mask of the indexes number can be placed at, index 0 is not used
+    private final int[] numberAppearsInIndex = new int[SodukuUnits.MAX_BOX_SIZE * SodukuUnits.MAX_BOX_SIZE + 1];
+    // The numbers that can be part of a subset in the unit being searched
+    private final int[] candidateNumber = new int[SodukuUnits.MAX_BOX_SIZE * SodukuUnits.MAX_BOX_SIZE];
+    private int candidateCount;
+    private int[] cells;
+    private PossibilityGrid possibilities;
+    private boolean hasPossibilitiesBeenRemoved;
+
+    /**
+     * @param subsetSize the number of numbers in the subsets to look for, 2, 3 or 4
+     */
+    public HiddenSubsets(int subsetSize) {
+        if (subsetSize < 2 || subsetSize > 4) {
+            throw new IllegalArgumentException("Subset size must be 2, 3 or 4, was " + subsetSize);
+        }
+        this.subsetSize = subsetSize;
+    }
+
+    @Override
+    public Technique getTechnique() {
+        switch (subsetSize) {
+            case 2:
+                return Technique.HIDDEN_PAIRS;
+            case 3:
+                return Technique.HIDDEN_TRIPLES;
+            default:
+                return Technique.HIDDEN_QUADS;
+        }
+    }
+
+    /**
+     * Uses the solving technique hidden subsets to find possibilities that can be removed.
+     *
+     * @param possibilities the possibilities to work on
+     * @param changedSince  only rows, columns and squares changed after this change count are searched, -1 for all
+     * @return true if any changes has been made to the possibilities, otherwise false.
+     */
+    @Override
+    public boolean apply(PossibilityGrid possibilities, long changedSince) {
+        this.possibilities = possibilities;
+        hasPossibilitiesBeenRemoved = false;
+        SodukuUnits units = possibilities.getUnits();
+        int size = units.getSize();
+
+        for (int unit = 0; unit < units.getUnitCount(); unit++) {
+            if (possibilities.getUnitChangeCount(unit) <= changedSince
+                    || size - Integer.bitCount(possibilities.getUnitPlaced(unit)) <= 2 * subsetSize) {
+                continue;
+            }
+            cells = units.unitCells(unit);
+            for (int number = 1; number <= size; number++) {
+                numberAppearsInIndex[number] = 0;
+            }
+            for (int index = 0; index < cells.length; index++) {
+                int possible = possibilities.getPossible(cells[index]);
+                while (possible != 0) {
+                    int number = PossibilityGrid.lowestNumber(possible);
+                    numberAppearsInIndex[number] |= 1 << index;
+                    possible &= possible - 1;
+                }
+            }
+            candidateCount = 0;
+            for (int number = 1; number <= size; number++) {
+                int count = Integer.bitCount(numberAppearsInIndex[number]);
+                if (count >= 2 && count <= subsetSize) {
+                    candidateNumber[candidateCount++] = number;
+                }
+            }
+            if (candidateCount >= subsetSize) {
+                search(0, 0, 0, 0);
+            }
+        }
+        this.possibilities = null;
+        cells = null;
+        return hasPossibilitiesBeenRemoved;
+    }
+
+    /**
+     * Adds candidates from first and on to the subset of the numbers in keep until it has subsetSize numbers. The cell
+     * masks are not updated when possibilities are removed, but they only shrink so a subset found with the old masks
+     * still holds.
+     *
+     * @param first  the first candidate that may be added
+     * @param picked the number of numbers in the subset so far
+     * @param union  mask of the unit indexes of the cells the numbers of the subset can be placed in
+     * @param keep   mask of the numbers in the subset
+     */
+    private void search(int first, int picked, int union, int keep) {
+        for (int i = first; i <= candidateCount - subsetSize + picked; i++) {
+            int number = candidateNumber[i];
+            int newUnion = union | numberAppearsInIndex[number];
+            if (Integer.bitCount(newUnion) > subsetSize) {
+                continue;
+            }
+            int newKeep = keep | PossibilityGrid.bit(number);
+            if (picked + 1 < subsetSize) {
+                search(i + 1, picked + 1, newUnion, newKeep);
+            } else if (Integer.bitCount(newUnion) == subsetSize) {
+                removeOthers(newUnion, newKeep);
+            }
+        }
+    }
+
+    private void removeOthers(int union, int keep) {
+        while (union != 0) {
+            int index = Integer.numberOfTrailingZeros(union);
+            if (possibilities.removePossibilities(cells[index], ~keep & possibilities.getAllMask())) {
+                hasPossibilitiesBeenRemoved = true;
+            }
+            union &= union - 1;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+import main.java.SodukuUtils.SodukuUnits;
+
+/**
+ * Locked candidates ("possibilities" with my naming choice) http://www.angusj.com/sudoku/hints.php
+ */
+public class LockedCandidates implements SolvingTechnique {
+
+    private static final int[] LINE_TYPES = {SodukuUnits.ROW, SodukuUnits.COLUMN};
+
+    private final int[] parts = new int[SodukuUnits.MAX_BOX_SIZE];
+
+    @Override
+    public Technique getTechnique() {
+        return Technique.LOCKED_CANDIDATES;
+    }
+
+    /**
+     * Uses the solving technique locked candidates to find possibilities that can be removed.
+     *
+     * @param possibilities the possibilities to work on
+     * @param changedSince  only rows, columns and squares changed after this change count are searched, -1 for all
+     * @return true if any changes has been made to the possibilities, otherwise false.
+     */
+    @Override
+    public boolean apply(PossibilityGrid possibilities, long changedSince) {
+        // type 1: A number is only possible to place in a single row or a single column inside a square
+        // Then all squares in that row/column can have that number removed from the row/column in question
+
+        // type 2: A square is alone to be able to have a number on a specific row or column
+        // Then all cells in that square that is not on that row/column can have the number removed
+
+        // All four variants works the same way: the possibilities of the three parts (three rows or columns in a square,
+        // three squares on a row or column, more on larger boards) are combined into one mask per part and then the numbers that only appear in
+        // one of the parts are removed from the cells outside of the square, row or column that part lies in.
+        // The row, column and square tables of the grid are read directly so nothing is copied.
+
+        boolean hasPossibilitiesBeenRemoved = false;
+        SodukuUnits units = possibilities.getUnits();
+
+        for (int sq = 0; sq < units.getSize(); sq++) {
+            int unit = units.unit(SodukuUnits.SQUARE, sq);
+            if (possibilities.getUnitChangeCount(unit) <= changedSince) {
+                continue;
+            }
+            // type 1 rows and columns
+            if (lockedInSquare(possibilities, units, sq, SodukuUnits.ROW)) {
+                hasPossibilitiesBeenRemoved = true;
+            }
+            if (lockedInSquare(possibilities, units, sq, SodukuUnits.COLUMN)) {
+                hasPossibilitiesBeenRemoved = true;
+            }
+        }
+
+        // type 2 rows and columns
+        for (int type : LINE_TYPES) {
+            for (int dimOneRow = 0; dimOneRow < units.getSize(); dimOneRow++) {
+                int unit = units.unit(type, dimOneRow);
+                if (possibilities.getUnitChangeCount(unit) <= changedSince) {
+                    continue;
+                }
+                if (lockedInLine(possibilities, units, unit, type)) {
+                    hasPossibilitiesBeenRemoved = true;
+                }
+            }
+        }
+        return hasPossibilitiesBeenRemoved;
+    }
+
+    /**
+     * Type 1: splits the square into its rows (or columns) and removes the numbers locked to one of them from the rest
+     * of that row (or column)
+     *
+     * @param type SodukuUnits.ROW or SodukuUnits.COLUMN
+     * @return true if any possibility was removed
+     */
+    private boolean lockedInSquare(PossibilityGrid possibilities, SodukuUnits units, int sq, int type) {
+        int boxSize = units.getBoxSize();
+        int[] cells = units.unitCells(units.unit(SodukuUnits.SQUARE, sq));
+        for (int i = 0; i < boxSize; i++) {
+            int mask = 0;
+            for (int j = 0; j < boxSize; j++) {
+                // The cells of a square are in reading order
+                mask |= possibilities.getPossible(type == SodukuUnits.ROW ? cells[i * boxSize + j] : cells[j * boxSize + i]);
+            }
+            parts[i] = mask;
+        }
+        boolean removed = false;
+        for (int index = 0; index < boxSize; index++) {
+            int lockedNumbers = lockedNumbers(index, boxSize);
+            if (lockedNumbers == 0) {
+                continue;
+            }
+            int cellOnLine = type == SodukuUnits.ROW ? cells[index * boxSize] : cells[index];
+            for (int cell : units.unitCells(units.cellUnit(cellOnLine, type))) {
+                // Do not report progress for unchanged possibilities
+                if (units.squareOf(cell) != sq && possibilities.removePossibilities(cell, lockedNumbers)) {
+                    removed = true;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Type 2: splits the row (or column) into the parts in each square and removes the numbers locked to one of them
+     * from the rest of that square
+     *
+     * @param type SodukuUnits.ROW or SodukuUnits.COLUMN, the type of unit
+     * @return true if any possibility was removed
+     */
+    private boolean lockedInLine(PossibilityGrid possibilities, SodukuUnits units, int unit, int type) {
+        int boxSize = units.getBoxSize();
+        int[] cells = units.unitCells(unit);
+        for (int i = 0; i < boxSize; i++) {
+            int mask = 0;
+            for (int j = 0; j < boxSize; j++) {
+                mask |= possibilities.getPossible(cells[i * boxSize + j]);
+            }
+            parts[i] = mask;
+        }
+        boolean removed = false;
+        for (int index = 0; index < boxSize; index++) {
+            int lockedNumbers = lockedNumbers(index, boxSize);
+            if (lockedNumbers == 0) {
+                continue;
+            }
+            int sqToAffect = units.squareOf(cells[index * boxSize]);
+            for (int cell : units.unitCells(units.unit(SodukuUnits.SQUARE, sqToAffect))) {
+                if (units.cellUnit(cell, type) != unit && possibilities.removePossibilities(cell, lockedNumbers)) {
+                    removed = true;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return the numbers of parts[index] that is not in any other of the first count parts
+     */
+    private int lockedNumbers(int index, int count) {
+        int others = 0;
+        for (int i = 0; i < count; i++) {
+            if (i != index) {
+                others |= parts[i];
+            }
+        }
+        return parts[index] & ~others;
+    }
+}
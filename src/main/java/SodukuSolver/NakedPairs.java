@@ -0,0 +1,11 @@
+package main.java.SodukuSolver;
+
+/**
+ * Naked pairs: two cells of a row, column or square that can only have the same two numbers
+ */
+public class NakedPairs extends NakedSubsets {
+
+    public NakedPairs() {
+        super(2);
+    }
+}
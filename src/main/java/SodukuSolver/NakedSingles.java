@@ -0,0 +1,31 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+
+/**
+ * Places a number if it is the only one who can be in a cell
+ */
+public class NakedSingles implements SolvingTechnique {
+
+    @Override
+    public Technique getTechnique() {
+        return Technique.NAKED_SINGLE;
+    }
+
+    @Override
+    public boolean apply(PossibilityGrid possibilities, long changedSince) {
+        boolean madeProgress = false;
+        int cells = possibilities.getUnits().getCellCount();
+        for (int cell = 0; cell < cells; cell++) {
+            if (possibilities.getCellChangeCount(cell) <= changedSince) {
+                continue;
+            }
+            int possible = possibilities.getPossible(cell);
+            if (possible != 0 && (possible & (possible - 1)) == 0) {
+                possibilities.place(cell, PossibilityGrid.lowestNumber(possible));
+                madeProgress = true;
+            }
+        }
+        return madeProgress;
+    }
+}
@@ -0,0 +1,124 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+import main.java.SodukuUtils.SodukuUnits;
+
+/**
+ * Naked subsets: n cells of a row, column or square that together can only have n numbers. The n numbers must be
+ * placed in those cells so they can be removed from the other cells of the unit. n = 2 is naked pairs, 3 naked triples
+ * and 4 naked quads.
+ * <p>
+ * The subsets are found by trying every combination of n cells with 2 to n possibilities and or-ing their masks, a
+ * combination is dropped as soon as the union has more than n numbers.
+ * <p>
+ * In a unit with m empty cells a naked subset of n cells is the same as a hidden subset of the other m - n numbers
+ * and removes the same possibilities. Units with less than 2n empty cells are therefore skipped, there the subset is
+ * found as a smaller hidden subset by HiddenSubsets or HiddenSingles, which must run before this technique as they
+ * do in TechniquePipeline.defaultTechniques().
+ */
+public class NakedSubsets implements SolvingTechnique {
+
+    private final int subsetSize;
+    // The unit indexes and masks of the cells that can be part of a subset in the unit being searched
+    private final int[] candidateIndex = new int[SodukuUnits.MAX_BOX_SIZE * SodukuUnits.MAX_BOX_SIZE];
+    private final int[] candidateMask = new int[SodukuUnits.MAX_BOX_SIZE * SodukuUnits.MAX_BOX_SIZE];
+    private int candidateCount;
+    private int[] cells;
+    private PossibilityGrid possibilities;
+    private boolean hasPossibilitiesBeenRemoved;
+
+    /**
+     * @param subsetSize the number of cells in the subsets to look for, 2, 3 or 4
+     */
+    public NakedSubsets(int subsetSize) {
+        if (subsetSize < 2 || subsetSize > 4) {
+            throw new IllegalArgumentException("Subset size must be 2, 3 or 4, was " + subsetSize);
+        }
+        this.subsetSize = subsetSize;
+    }
+
+    @Override
+    public Technique getTechnique() {
+        switch (subsetSize) {
+            case 2:
+                return Technique.NAKED_PAIRS;
+            case 3:
+                return Technique.NAKED_TRIPLES;
+            default:
+                return Technique.NAKED_QUADS;
+        }
+    }
+
+    /**
+     * Uses the solving technique naked subsets to find possibilities that can be removed.
+     *
+     * @param possibilities the possibilities to work on
+     * @param changedSince  only rows, columns and squares changed after this change count are searched, -1 for all
+     * @return true if any changes has been made to the possibilities, otherwise false.
+     */
+    @Override
+    public boolean apply(PossibilityGrid possibilities, long changedSince) {
+        this.possibilities = possibilities;
+        hasPossibilitiesBeenRemoved = false;
+        SodukuUnits units = possibilities.getUnits();
+        int size = units.getSize();
+
+        for (int unit = 0; unit < units.getUnitCount(); unit++) {
+            // The number of empty cells is the number of numbers not placed in the unit
+            if (possibilities.getUnitChangeCount(unit) <= changedSince
+                    || size - Integer.bitCount(possibilities.getUnitPlaced(unit)) < 2 * subsetSize) {
+                continue;
+            }
+            cells = units.unitCells(unit);
+            candidateCount = 0;
+            for (int index = 0; index < cells.length; index++) {
+                int possible = possibilities.getPossible(cells[index]);
+                int count = Integer.bitCount(possible);
+                if (count >= 2 && count <= subsetSize) {
+                    candidateIndex[candidateCount] = index;
+                    candidateMask[candidateCount] = possible;
+                    candidateCount++;
+                }
+            }
+            if (candidateCount >= subsetSize) {
+                search(0, 0, 0, 0);
+            }
+        }
+        this.possibilities = null;
+        cells = null;
+        return hasPossibilitiesBeenRemoved;
+    }
+
+    /**
+     * Adds candidates from first and on to the subset of the cells in chosen until it has subsetSize cells. The
+     * candidate masks are not updated when possibilities are removed, but they only shrink so a subset found with the
+     * old masks still holds.
+     *
+     * @param first  the first candidate that may be added
+     * @param picked the number of cells in the subset so far
+     * @param union  the numbers that can be placed in the cells of the subset
+     * @param chosen mask of the unit indexes of the cells in the subset
+     */
+    private void search(int first, int picked, int union, int chosen) {
+        for (int i = first; i <= candidateCount - subsetSize + picked; i++) {
+            int newUnion = union | candidateMask[i];
+            if (Integer.bitCount(newUnion) > subsetSize) {
+                continue;
+            }
+            int newChosen = chosen | 1 << candidateIndex[i];
+            if (picked + 1 < subsetSize) {
+                search(i + 1, picked + 1, newUnion, newChosen);
+            } else if (Integer.bitCount(newUnion) == subsetSize) {
+                removeFromOthers(newUnion, newChosen);
+            }
+        }
+    }
+
+    private void removeFromOthers(int union, int chosen) {
+        for (int index = 0; index < cells.length; index++) {
+            if ((chosen & 1 << index) == 0 && possibilities.removePossibilities(cells[index], union)) {
+                hasPossibilitiesBeenRemoved = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.SodukuUnits;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Creates random soduku puzzles that has exactly one solution. A random full grid is made first, then clues are removed
+ * in random order as long as DancingLinksSolver still finds exactly one solution, until the target number of clues is
+ * reached or no more clues can be removed.
+ * <p>
+ * The clues can be removed in a symmetric pattern, then a clue is only removed together with the clues it is mapped
+ * to by the symmetry. The same seed always gives the same puzzle, so a run can be reproduced.
+ * A generator must only be used by one thread.
+ */
+public class PuzzleGenerator {
+
+    /**
+     * The patterns the clues of a puzzle can be placed in
+     * <pre>
+     *     NONE       no symmetry
+     *     ROTATE_180 the clues are the same after turning the board half a turn
+     *     ROTATE_90  the clues are the same after turning the board a quarter of a turn
+     *     MIRROR     the left half of the board is a mirror image of the right half
+     *     DIAGONAL   the clues are the same after transposing the board
+     * </pre>
+     */
+    public enum Symmetry {
+        NONE,
+        ROTATE_180,
+        ROTATE_90,
+        MIRROR,
+        DIAGONAL
+    }
+
+    private final DancingLinksSolver solver = new DancingLinksSolver();
+    private final int size;
+    private final int boxSize;
+    private final int[] cellOrder;
+    // The cells a clue is removed together with and the numbers that was in them, a orbit has at most 4 cells
+    private final int[] orbit = new int[4];
+    private final int[] removed = new int[4];
+    private Symmetry symmetry = Symmetry.NONE;
+    private int targetClues;
+
+    /**
+     * Creates a generator of 9x9 puzzles
+     */
+    public PuzzleGenerator() {
+        this(9);
+    }
+
+    /**
+     * @param size the number of rows of the puzzles, 4, 9, 16 or 25. Generating 16x16 and 25x25 puzzles is slow.
+     */
+    public PuzzleGenerator(int size) {
+        SodukuUnits units = SodukuUnits.forBoardSize(size);
+        if (units == null) {
+            throw new IllegalArgumentException("Unsupported board size " + size);
+        }
+        this.size = size;
+        boxSize = units.getBoxSize();
+        cellOrder = new int[size * size];
+    }
+
+    /**
+     * @param symmetry the pattern to remove clues in, NONE by default
+     */
+    public void setSymmetry(Symmetry symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    /**
+     * @param targetClues stop removing clues when the puzzle has this many clues or less, 0 (the default) removes as
+     *                    many as possible. Puzzles with few clues can not always be made, then the puzzle gets as few
+     *                    clues as could be removed.
+     */
+    public void setTargetClues(int targetClues) {
+        this.targetClues = targetClues;
+    }
+
+    /**
+     * Turns a seed and the number of a puzzle into the seed of that puzzle, so puzzles can be generated in any order
+     * or in parallel and still be the same for the same seed
+     *
+     * @param seed  the seed of the whole run
+     * @param index the number of the puzzle in the run
+     * @return the seed to give generate(long)
+     */
+    public static long seedFor(long seed, long index) {
+        // The mixing function of SplitMix64
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param seed the seed of the puzzle
+     * @return a new puzzle with exactly one solution
+     * @throws Exception if the solver fails
+     */
+    public int[][] generate(long seed) throws Exception {
+        return generate(new Random(seed));
+    }
+
+    /**
+     * @param random the source of randomness to use
+     * @return a new puzzle with exactly one solution
+     * @throws Exception if the solver fails
+     */
+    public int[][] generate(Random random) throws Exception {
+        int[][] puzzle = randomSolution(random);
+        int clues = size * size;
+        for (int i = 0; i < cellOrder.length; i++) {
+            cellOrder[i] = i;
+        }
+        shuffle(cellOrder, random);
+
+        for (int cell : cellOrder) {
+            if (clues <= targetClues) {
+                break;
+            }
+            int r = cell / size;
+            int c = cell % size;
+            if (puzzle[r][c] == 0) {
+                continue;
+            }
+            int orbitSize = orbitOf(cell);
+            if (clues - orbitSize < targetClues) {
+                continue;
+            }
+            for (int i = 0; i < orbitSize; i++) {
+                removed[i] = puzzle[orbit[i] / size][orbit[i] % size];
+                puzzle[orbit[i] / size][orbit[i] % size] = 0;
+            }
+            solver.setPlayfield(puzzle);
+            if (solver.countSolutions(2) == 1) {
+                clues -= orbitSize;
+            } else {
+                for (int i = 0; i < orbitSize; i++) {
+                    puzzle[orbit[i] / size][orbit[i] % size] = removed[i];
+                }
+            }
+        }
+        return puzzle;
+    }
+
+    /**
+     * Makes a random full grid. The squares on the diagonal does not share any row or column so they are filled with
+     * random permutations (again if the filling can not be completed), the rest of the grid is filled in by the solver and the numbers are then relabelled at
+     * random.
+     *
+     * @param random the source of randomness to use
+     * @return a random full grid
+     * @throws Exception if the solver fails
+     */
+    public int[][] randomSolution(Random random) throws Exception {
+        int[][] grid = new int[size][size];
+        int[] numbers = new int[size];
+        int[][] solved;
+        do {
+            for (int sq = 0; sq < boxSize; sq++) {
+                for (int i = 0; i < size; i++) {
+                    numbers[i] = i + 1;
+                }
+                shuffle(numbers, random);
+                for (int i = 0; i < size; i++) {
+                    grid[sq * boxSize + i / boxSize][sq * boxSize + i % boxSize] = numbers[i];
+                }
+            }
+            solver.setPlayfield(grid);
+            solver.solve();
+            solved = solver.getPlayfield();
+            // Some fillings of the squares on a 4x4 board can not be completed, clear the grid and try again
+            if (solver.getSolveResult() == SodukuSolver.SolveResults.NOT_SOLVABLE) {
+                for (int[] row : grid) {
+                    Arrays.fill(row, 0);
+                }
+            }
+        } while (solver.getSolveResult() == SodukuSolver.SolveResults.NOT_SOLVABLE);
+        for (int r = 0; r < size; r++) {
+            System.arraycopy(solved[r], 0, grid[r], 0, size);
+        }
+
+        // The solver always fills in the rest the same way, relabelling gives all numbers the same chance everywhere
+        int[] labels = new int[size + 1];
+        for (int i = 1; i <= size; i++) {
+            labels[i] = i;
+        }
+        shuffle(labels, random, 1);
+        for (int[] row : grid) {
+            for (int c = 0; c < size; c++) {
+                row[c] = labels[row[c]];
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Writes the cells the symmetry maps cell to (including cell) into orbit
+     *
+     * @return the number of cells written, duplicates are not written
+     */
+    private int orbitOf(int cell) {
+        int r = cell / size;
+        int c = cell % size;
+        int last = size - 1;
+        int count = 0;
+        orbit[count++] = cell;
+        switch (symmetry) {
+            case ROTATE_180:
+                count = addToOrbit(count, (last - r) * size + last - c);
+                break;
+            case ROTATE_90:
+                count = addToOrbit(count, c * size + last - r);
+                count = addToOrbit(count, (last - r) * size + last - c);
+                count = addToOrbit(count, (last - c) * size + r);
+                break;
+            case MIRROR:
+                count = addToOrbit(count, r * size + last - c);
+                break;
+            case DIAGONAL:
+                count = addToOrbit(count, c * size + r);
+                break;
+            default:
+                break;
+        }
+        return count;
+    }
+
+    private int addToOrbit(int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (orbit[i] == cell) {
+                return count;
+            }
+        }
+        orbit[count] = cell;
+        return count + 1;
+    }
+
+    private static void shuffle(int[] array, Random random) {
+        shuffle(array, random, 0);
+    }
+
+    /**
+     * Fisher-Yates shuffle of the elements from index first to the end of array
+     */
+    private static void shuffle(int[] array, Random random, int first) {
+        for (int i = array.length - 1; i > first; i--) {
+            int j = first + random.nextInt(i - first + 1);
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.SodukuUnits;
+
+/**
+ * A SodukuEngine that for every solve picks the engine best suited for the set playfield. Boards with few given numbers
+ * are solved with DancingLinksSolver, all other with SodukuSolver.
+ */
+public class RoutingSolver implements SodukuEngine {
+
+    private final SodukuSolver techniqueSolver = new SodukuSolver();
+    private final DancingLinksSolver dancingLinksSolver = new DancingLinksSolver();
+    private final int dancingLinksBelow;
+    private SodukuEngine lastUsed = techniqueSolver;
+
+    /**
+     * @param dancingLinksBelow playfields with fewer given numbers than this is solved with DancingLinksSolver. The
+     *                          limit is for 9x9 boards, for other sizes it is scaled by the number of cells.
+     */
+    public RoutingSolver(int dancingLinksBelow) {
+        this.dancingLinksBelow = dancingLinksBelow;
+    }
+
+    @Override
+    public boolean setPlayfield(int[][] newPlayfield) {
+        // Validated before switching engine so a rejected playfield leaves the last one in place
+        SodukuUnits units = SodukuUnits.forPlayfield(newPlayfield);
+        if (units == null) {
+            return false;
+        }
+        int numbersGiven = 0;
+        for (int[] row : newPlayfield) {
+            for (int value : row) {
+                if (value != 0) {
+                    numbersGiven++;
+                }
+            }
+        }
+        int cells = units.getSize() * units.getSize();
+        lastUsed = numbersGiven * 81L < (long) dancingLinksBelow * cells ? dancingLinksSolver : techniqueSolver;
+        return lastUsed.setPlayfield(newPlayfield);
+    }
+
+    @Override
+    public int[][] getPlayfield() {
+        return lastUsed.getPlayfield();
+    }
+
+    @Override
+    public void solve() throws Exception {
+        lastUsed.solve();
+    }
+
+    @Override
+    public void solve(SolveDeadline deadline) throws Exception {
+        lastUsed.solve(deadline);
+    }
+
+    @Override
+    public SodukuSolver.SolveResults getSolveResult() {
+        return lastUsed.getSolveResult();
+    }
+
+    @Override
+    public void setProgressListener(SolveProgressListener listener) {
+        techniqueSolver.setProgressListener(listener);
+        dancingLinksSolver.setProgressListener(listener);
+    }
+
+    @Override
+    public void reset() {
+        techniqueSolver.reset();
+        dancingLinksSolver.reset();
+        lastUsed = techniqueSolver;
+    }
+}
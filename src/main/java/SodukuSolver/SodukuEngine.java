@@ -0,0 +1,61 @@
+package main.java.SodukuSolver;
+
+/**
+ * The common interface of the soduku solvers. All engines takes a 9x9 playfield (or a 4x4, 16x16 or 25x25 one) and
+ * reports the result of the solve attempt the same way, so the code using a solver does not need to know which engine is doing the work.
+ * Use SolverBackend to create a engine.
+ * <p>
+ * A engine is not thread safe but can be reused for any number of boards, it copies the set playfield into storage of
+ * its own and keeps what it allocates between solves. SodukuSolverPool lends engines to threads.
+ */
+public interface SodukuEngine {
+
+    /**
+     * Set or change the playfield (soduku board) to be solved. The board is copied, the engine never changes it.
+     *
+     * @param newPlayfield a int[9][9] that describes a soduku board to solve, or a int[4][4], int[16][16] or int[25][25]
+     * @return false if the playfield contains any number smaller then zero or larger then nine (the board size), or is
+     * not of a supported size, true otherwise.
+     */
+    boolean setPlayfield(int[][] newPlayfield);
+
+    /**
+     * used if you want to know how the playfield looks after the solve attempt
+     *
+     * @return int[9][9] (or the size of the set board) containing the playfield. It is owned by the engine and is
+     * changed by the next call to setPlayfield or solve
+     */
+    int[][] getPlayfield();
+
+    /**
+     * Tries to solve the set grid
+     */
+    void solve() throws Exception;
+
+    /**
+     * Tries to solve the set grid but stops with the result TIMED_OUT if deadline expires before the solve is done.
+     * The playfield then contains the cells the engine had filled in for certain, cells filled by guesses are not
+     * included.
+     *
+     * @param deadline when to stop trying, null for no limit
+     */
+    void solve(SolveDeadline deadline) throws Exception;
+
+    /**
+     * @return the result of the last solve attempt, see SodukuSolver.getSolveResult() for the meaning of the values
+     */
+    SodukuSolver.SolveResults getSolveResult();
+
+    /**
+     * Sets a listener that is told how the solve is going and can stop it, see SolveProgressListener
+     *
+     * @param listener the listener to call during solve() or null to not report any progress
+     */
+    void setProgressListener(SolveProgressListener listener);
+
+    /**
+     * Forgets the last board, the result and the progress listener so the engine can be given to someone else. The
+     * storage allocated by earlier solves is kept.
+     */
+    void reset();
+}
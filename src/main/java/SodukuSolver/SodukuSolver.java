@@ -1,34 +1,56 @@
 package main.java.SodukuSolver;
 
-import main.java.SodukuUtils.NumSeen;
+import main.java.SodukuUtils.CanonicalForm;
+import main.java.SodukuUtils.PossibilityGrid;
 import main.java.SodukuUtils.SodukuCoordUtils;
-import main.java.Utils.ListAndArrayUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.ImmutableTriple;
-import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.lang3.tuple.Triple;
+import main.java.SodukuUtils.SodukuUnits;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A class made for solving soduku.
  * Methods may throw exception if class is not properly initialized using either SodukuSolver(int[][]) or
  * SodukuSolver() followed by setPlayfield(int[][])
+ * <p>
+ * Besides normal 9x9 boards also 4x4, 16x16 and 25x25 boards can be solved, the board size is taken from the playfield.
+ * <p>
+ * The playfield is copied into a board owned by the solver and everything a solve needs is allocated the first time it
+ * is needed and then reused, so a solver that is reused for many boards of the same size does not allocate anything
+ * per solve (except for findSolutions and the SolutionCache). See SodukuSolverPool for sharing solvers between threads.
  */
-public class SodukuSolver {
+public class SodukuSolver implements SodukuEngine {
 
     public enum SolveResults {
         NOT_TESTED,
         SOLVED,
         SOLVE_FAILED,
         NOT_SOLVABLE,
-        MULTIPLE_SOLUTIONS
+        MULTIPLE_SOLUTIONS,
+        TIMED_OUT
     }
 
     private int[][] playfield = new int[9][9];
     private Boolean isInitialized = false;
-    private int[][][] everythingPossible;
+    private PossibilityGrid possibilities = new PossibilityGrid();
+    // The boards of the solutions found by the search, reused by every solve. Only the first solutionCount are valid
+    private final ArrayList<int[][]> solutionBoards = new ArrayList<>();
+    private int solutionCount;
+    // Masks of the numbers seen in every row, column and square, used by isPlayfieldValid
+    private int[] seenInRow = new int[0];
+    private int[] seenInCol = new int[0];
+    private int[] seenInSq = new int[0];
+    private int maxSolutions;
+    private SolutionCache solutionCache;
+    private TechniquePipeline pipeline = new TechniquePipeline(TechniquePipeline.defaultTechniques());
+    private SolveStats stats; // null then stats are not collected
+    private DifficultyRating rating; // null then the difficulty is not rated
+    private SolveProgressListener progressListener;
+    private long guessCount;
+    private boolean stopped;
+    private SolveDeadline deadline; // only set during solve(SolveDeadline)
+    private boolean timedOut;
     private SolveResults solveResult;
 
     /**
@@ -42,10 +64,11 @@ public class SodukuSolver {
     /**
      * Recommended Constructor, Sets up the playfield with given 9x9 2-dimensional int-array
      *
-     * @param array: a 9x9 int-array containing values between 0 and 9. 0 means the value is not given initially
+     * @param array: a 9x9 int-array containing values between 0 and 9. 0 means the value is not given initially.
+     *               Can also be a 4x4, 16x16 or 25x25 array with values up to 4, 16 or 25.
      */
     public SodukuSolver(int[][] array) {
-        playfield = array;
+        copyToPlayfield(array);
         isInitialized = true;
         solveResult = SolveResults.NOT_TESTED;
     }
@@ -53,7 +76,8 @@ public class SodukuSolver {
     /**
      * used if you want to know how the playfield looks after the solve attempt
      *
-     * @return int[9][9] containing the playfield
+     * @return int[9][9] (or the size of the set board) containing the playfield. It is owned by the solver and is
+     * changed by the next call to setPlayfield or solve
      */
     public int[][] getPlayfield() {
         return playfield;
@@ -62,23 +86,48 @@ public class SodukuSolver {
     /**
      * Set or change the playfield (soduku board) to be solved
      *
-     * @param newPlayfield a int[9][9] that describes a soduku board to solve
-     * @return false if the playfield contains any number smaller then zero or larger then nine, true otherwise.
+     * @param newPlayfield a int[9][9] that describes a soduku board to solve, or a int[4][4], int[16][16] or int[25][25].
+     *                     It is copied and not changed by the solver.
+     * @return false if the playfield contains any number smaller then zero or larger then nine (the board size), or is
+     * not of a supported size, true otherwise.
      */
     public boolean setPlayfield(int[][] newPlayfield) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (newPlayfield[row][col] < 0 || newPlayfield[row][col] > 9) {
-                    return false;
-                }
-            }
+        if (SodukuUnits.forPlayfield(newPlayfield) == null) {
+            return false;
         }
-        playfield = newPlayfield;
+        copyToPlayfield(newPlayfield);
         isInitialized = true;
         solveResult = SolveResults.NOT_TESTED;
         return true;
     }
 
+    /**
+     * Copies board into the playfield owned by the solver, a new one is only allocated if the size has changed
+     */
+    private void copyToPlayfield(int[][] board) {
+        if (playfield.length != board.length) {
+            playfield = new int[board.length][board.length];
+        }
+        for (int r = 0; r < board.length; r++) {
+            System.arraycopy(board[r], 0, playfield[r], 0, board.length);
+        }
+    }
+
+    /**
+     * Makes the solver ready for a new user, like a new solver but with the same techniques, stats and rating
+     * settings and SolutionCache. The playfield is emptied and the progress listener removed, the allocated storage is
+     * kept.
+     */
+    @Override
+    public void reset() {
+        for (int[] row : playfield) {
+            Arrays.fill(row, 0);
+        }
+        isInitialized = false;
+        solveResult = SolveResults.NOT_TESTED;
+        progressListener = null;
+    }
+
     /**
      * Returns a enum SolveResults value telling if the soduku was solve, cant be solved, has multiple solution etc.
      * To see the result the resulting playfield is accessible via getPlayfield().
@@ -87,7 +136,10 @@ public class SodukuSolver {
      *     SOLVED             the soduku was solved.
      *     SOLVE_FAILED       the soduku was not solved and none of the following states could be proved.
      *     NOT_SOLVABLE       the soduku has no solution, it can not be solved.
-     *     MULTIPLE_SOLUTIONS the soduku has more than one possible solution.
+     *     MULTIPLE_SOLUTIONS the soduku has more than one possible solution. If solve() found them the playfield
+     *                        contains one of them, use findSolutions(2) to get two of them.
+     *     TIMED_OUT          the SolveDeadline given to solve(SolveDeadline) expired before the solve was done. The
+     *                        playfield contains the cells that was filled in without guessing.
      *
      * @return enum SolveResults
      */
@@ -96,843 +148,478 @@ public class SodukuSolver {
     }
 
     /**
-     * Tries to solve the set grid
+     * Replaces the solving techniques used before guessing. The techniques are run by a TechniquePipeline so they
+     * should be ordered from the cheapest to the most expensive one. The techniques must not be shared with other
+     * solvers.
+     *
+     * @param techniques the techniques to use, an empty list makes the solver only guess
      */
-    public void solve() throws Exception {
-        if (!isInitialized) {
-            return;
-        }
-
-        // First check the given board
-
-        if (!isPlayfieldValid()) {
-            return;
-        }
-
-        // Preparations
-
-        int[][] colResult = new int[9][];
-        int[][] sqResult = new int[9][];
-        int[][] rowResult = new int[9][];
-        for (int i = 0, j = 0; i < 3; i++) {
-            sqResult[j++] = scanSquare(i * 3, 0);
-            sqResult[j++] = scanSquare(i * 3, 3);
-            sqResult[j++] = scanSquare(i * 3, 6);
-        }
-        for (int i = 0; i < 9; i++) {
-            rowResult[i] = scanRow(i);
-            colResult[i] = scanCol(i);
-        }
-        everythingPossible = new int[9][9][];
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                if (playfield[r][c] != 0) {
-                    everythingPossible[r][c] = new int[]{0};
-                    continue;
-                }
-                everythingPossible[r][c] = ListAndArrayUtils.findCommons(sqResult[SodukuCoordUtils.coordToSquareNr(r, c)],
-                        rowResult[r], colResult[c]);
-            }
-        }
-
-        // Attempt solving
-
-        boolean madeProgress;
-        int iterationCounter = 0;
-        do {
-            madeProgress = false;
-            if (iterationCounter > 100) {
-                validateSolve();
-                System.err.println("Solve aborted! Locked looping with faked progress!");
-                //throw new Exception("Solve aborted! Locked looping with faked progress!");
-                return;
-            }
-            // Algorithm 1: Places a number if it is the only one who can be in a cell
-
-            for (int r = 0; r < 9; r++) {
-                for (int c = 0; c < 9; c++) {
-                    if (playfield[r][c] != 0)
-                        continue;
-
-                    if (everythingPossible[r][c].length == 1) {
-                        int match = everythingPossible[r][c][0];
-                        playfield[r][c] = match;
-                        removePossibilities(r, c, match);
-                        madeProgress = true;
-                    }
-                }
-            }
-
-            // Algorithm 2: Places a number if it can only be there (and nowhere else in row/col/sq)
-
-            ArrayList<Triple<Integer, Integer, Integer>> results = singlePossible();
-            if (!results.isEmpty()) {
-                for (Triple<Integer, Integer, Integer> result : results) {
-                    int r = result.getLeft();
-                    int c = result.getMiddle();
-                    int answer = result.getRight();
-                    playfield[r][c] = answer;
-                    // Possibilities was removed then the answer was added to the results list
-                }
-                madeProgress = true;
-            }
+    public void setTechniques(List<SolvingTechnique> techniques) {
+        pipeline = new TechniquePipeline(techniques);
+    }
 
-            // Algorithm 3: Locked candidates ("possibilities" with my naming choice) http://www.angusj.com/sudoku/hints.php
+    /**
+     * @return the solving techniques used before guessing, cheapest first
+     */
+    public List<SolvingTechnique> getTechniques() {
+        return pipeline.getTechniques();
+    }
 
-            if (lockedPossibilities()) { // true if some possibilities was removed, maybe algorithm 1 or 2 can make new progress now
-                madeProgress = true;
-            }
+    @Override
+    public void setProgressListener(SolveProgressListener listener) {
+        progressListener = listener;
+    }
 
-            // Algorithm 4: Naked Pairs
+    /**
+     * Turns collection of SolveStats on or off. When on, the counters are reset at the start of every solve() and
+     * can be read with getStats() after it. When off, solving is not slowed down by the collection.
+     *
+     * @param collectStats true to collect stats, false to stop collecting them
+     */
+    public void setCollectStats(boolean collectStats) {
+        stats = collectStats ? new SolveStats() : null;
+    }
 
-            if (nakedPairs()) { // Does also just remove possibilities and does not place any numbers on the board
-                madeProgress = true;
-            }
+    /**
+     * @return the stats of the last solve() or null if stats are not collected
+     */
+    public SolveStats getStats() {
+        return stats;
+    }
 
-            // Algorithm 5: Hidden Pairs
+    /**
+     * Turns rating of the difficulty on or off. When on, the techniques that made progress and the guesses of every
+     * solve() are counted and can be read with getRating() after it, see DifficultyRating. The rating only adds a
+     * increment per technique run so it can be left on for large batches. The SolutionCache is not used while rating,
+     * a cached result has no rating.
+     *
+     * @param rateDifficulty true to rate the difficulty, false to stop rating it
+     */
+    public void setRateDifficulty(boolean rateDifficulty) {
+        rating = rateDifficulty ? new DifficultyRating() : null;
+    }
 
-            if (hiddenPairs()) {
-                madeProgress = true;
-            }
+    /**
+     * @return the rating of the last solve() and the summed up counts of all rated solves, or null if the difficulty
+     * is not rated
+     */
+    public DifficultyRating getRating() {
+        return rating;
+    }
 
-            iterationCounter++;
-        } while (madeProgress);
+    /**
+     * Makes the solver look up every board in cache before solving it and store the result there after solving it.
+     * The cache can be shared with other solvers.
+     *
+     * @param cache the cache to use or null to not use a cache
+     */
+    public void setSolutionCache(SolutionCache cache) {
+        solutionCache = cache;
+    }
 
-        validateSolve();
+    /**
+     * Tries to solve the set grid
+     */
+    public void solve() throws Exception {
+        solve(null);
     }
 
     /**
-     * Called in the beginning of solve() to make a quick check if the set board is solvable
-     * Tests if a number appear more than once in a single row, column or square. The amount of given numbers are also
-     * counted because if less than 17 numbers are given it has been proved to not have exactly one solution.
-     * If false is returned, solveResult has been set to contain NOT_SOLVABLE or MULTIPLE_SOLUTIONS.
+     * Tries to solve the set grid but stops with the result TIMED_OUT if deadline expires first. The deadline is
+     * checked before every technique and every guess, so the solve stops within a few microseconds after that. The
+     * playfield then contains the cells filled in by the techniques before the first guess.
      *
-     * @return false if there are definitely not exact one solution (#solutions != 1) and true if this quick check could
-     * not tell how many solutions there are (0, 1 or >1)
+     * @param deadline when to stop trying, null for no limit
      */
-    private boolean isPlayfieldValid() {
-        boolean seenInRow[][] = new boolean[9][10];
-        boolean seenInCol[][] = new boolean[9][10];
-        boolean seenInSq[][] = new boolean[9][10];
-        int numbersGiven = 0;
-
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                int sq = SodukuCoordUtils.coordToSquareNr(row, col);
-                int number = playfield[row][col];
-                if (number != 0) {
-                    numbersGiven++;
-                    if (seenInCol[col][number] || seenInRow[row][number] || seenInSq[sq][number]) {
-                        solveResult = SolveResults.NOT_SOLVABLE; // at least one number appears >1 time in a row/col/square
-                        return false;
-                    } else {
-                        seenInCol[col][number] = true;
-                        seenInRow[row][number] = true;
-                        seenInSq[sq][number] = true;
-                    }
-                }
-            }
+    @Override
+    public void solve(SolveDeadline deadline) throws Exception {
+        if (!isInitialized) {
+            return;
         }
-        if (numbersGiven < 17) { // It has been proved that no soduku with less than 17 clues can have exactly one solution.
-            solveResult = SolveResults.MULTIPLE_SOLUTIONS;
-            return false;
+        this.deadline = deadline;
+        try {
+            solveChecked();
+        } finally {
+            this.deadline = null;
         }
-
-        return true;
     }
 
     /**
-     * Tries to decide if the soduku has been solved or not, if it can't be solved or if it has multiple solutions and
-     * sets the variable solveResult accordingly
+     * The part of solve() that runs with the deadline set
      */
-    private void validateSolve() throws Exception {
-        boolean numbersMissing = false;
-        ArrayList<Pair<Integer, Integer>> possibilitiesToStudy = new ArrayList<>();
+    private void solveChecked() throws Exception {
+        if (stats != null) {
+            stats.reset();
+        }
+        if (rating != null) {
+            rating.reset();
+        }
+
+        // First check the given board
 
         if (!isPlayfieldValid()) {
-            // something is wrong in the solving algorithms
-            System.err.println("isPlayfieldValid inside validateSolve returned false. Something is wrong in the solving algorithms");
+            if (stats != null) {
+                stats.recordSolve(SolveStats.LoopEndReason.NOT_RUN);
+            }
             return;
         }
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (playfield[row][col] == 0) {
-                    numbersMissing = true;
-                    if (everythingPossible[row][col].length == 0) {
-                        // A cell is empty and it is not possible to place any number in it without breaking the unique in row/col/sq law
-                        solveResult = SolveResults.NOT_SOLVABLE;
-                        return;
-                    } else if (everythingPossible[row][col].length == 1) { // Now something is wrong!
-                        solveResult = SolveResults.SOLVE_FAILED;
-                        System.err.println("Now something is wrong! validateSolve is running and the cell [" + row + ", " + col + "] has one possibility");
-                        return;
-                    } else {
-                        possibilitiesToStudy.add(new ImmutablePair<>(row, col));
-                    }
+
+        // A copy of a board solved before is taken from the cache
+
+        CanonicalForm form = null;
+        if (solutionCache != null && rating == null) {
+            form = CanonicalForm.of(playfield);
+            SolveResults cached = solutionCache.lookup(form, playfield);
+            if (cached != null) {
+                solveResult = cached;
+                if (stats != null) {
+                    stats.recordCacheHit();
                 }
+                return;
             }
         }
 
-        //if (possibilitiesToStudy.isEmpty())
-        //{
-        if (numbersMissing) {
-            solveResult = SolveResults.SOLVE_FAILED;
-        } else {
-            solveResult = SolveResults.SOLVED;
+        solveUncached();
+        if (form != null && solveResult != SolveResults.SOLVE_FAILED && solveResult != SolveResults.NOT_TESTED
+                && solveResult != SolveResults.TIMED_OUT) {
+            solutionCache.store(form, playfield, solveResult);
         }
-        return;
-        //}
-
-        // Ignore case "multiple solutions" until a algorithm is invented
-
-        //solveResult = SolveResults.MULTIPLE_SOLUTIONS;
     }
 
     /**
-     * Returns all numbers that is missing in the given square
-     *
-     * @param r: the row number (0-8)
-     * @param c: the column number (0-8)
-     * @return a int array containing the missing numbers
-     * @throws Exception: if this instance of the class has not been initialized
+     * The part of solve() after the checks of the given board
      */
-    private int[] scanSquare(int r, int c) throws Exception {
-        if (!isInitialized) {
-            throw new Exception("Class not initialized, playfield not set");
+    private void solveUncached() throws Exception {
+
+        // Preparations
+
+        solutionCount = 0;
+        prepareGrid();
+        possibilities.load(playfield);
+
+        // Attempt solving
+
+        boolean techniquesFinished = pipeline.run(possibilities, stats, rating, deadline);
+        if (stats != null) {
+            stats.recordSolve(loopEndReason(techniquesFinished));
+        }
+        if (deadline != null && possibilities.getCellsFilled() < possibilities.getUnits().getCellCount()
+                && deadline.isExpired()) {
+            possibilities.copyValuesTo(playfield);
+            solveResult = SolveResults.TIMED_OUT;
+            return;
+        }
+        if (!techniquesFinished) {
+            // Locked looping with faked progress, the stats record it as LoopEndReason.FAKED_PROGRESS
+            possibilities.copyValuesTo(playfield);
+            validateSolve();
+            return;
         }
 
-        r = SodukuCoordUtils.topLeftRow(r);
-        c = SodukuCoordUtils.topLeftCol(c);
-        NumSeen numSeen = new NumSeen();
+        // Guess when the techniques can not get any further, keep going after the first solution to see if it is unique
 
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                int num = playfield[r + i][c + j];
-                if (num != 0) {
-                    numSeen.makeSeen(num);
-                }
+        collectSolutions(2);
+        if (stopped) {
+            // The search has restored the possibilities to what the techniques found before the first guess
+            if (timedOut) {
+                possibilities.copyValuesTo(playfield);
+                solveResult = SolveResults.TIMED_OUT;
+            } else {
+                solveResult = SolveResults.SOLVE_FAILED;
             }
+            return;
+        }
+        if (rating != null) {
+            rating.recordSolve();
+        }
+        if (solutionCount == 0) {
+            possibilities.copyValuesTo(playfield);
+            solveResult = SolveResults.NOT_SOLVABLE;
+            return;
+        }
+
+        int[][] solution = solutionBoards.get(0);
+        for (int r = 0; r < playfield.length; r++) {
+            System.arraycopy(solution[r], 0, playfield[r], 0, playfield.length);
         }
-        return numSeen.getUnseen();
+        validateSolve();
     }
 
     /**
-     * Returns all number that can is missing on the given row
+     * Searches for solutions to the set playfield and stops as soon as maxSolutions solutions has been found. The
+     * playfield is not changed and solveResult is not updated.
+     * <p>
+     * To check if a soduku has exactly one solution call this method with maxSolutions = 2. If two solutions are
+     * returned they are witnesses of the soduku having multiple solutions, the search stops there so this costs about
+     * as much as solving the soduku once.
      *
-     * @param r: the row number (0-8)
-     * @return a int array containing the missing numbers
-     * @throws Exception: if this instance of the class has not been initialized
+     * @param maxSolutions the number of solutions to find before stopping the search
+     * @return a list of up to maxSolutions different solutions, empty if the soduku has no solution. If the
+     * SolveProgressListener stopped the search only the solutions found before that are returned
+     * @throws Exception if this instance of the class has not been initialized
      */
-    private int[] scanRow(int r) throws Exception {
+    public ArrayList<int[][]> findSolutions(int maxSolutions) throws Exception {
         if (!isInitialized) {
             throw new Exception("Class not initialized, playfield not set");
         }
-
-        NumSeen numSeen = new NumSeen();
-        for (int c = 0; c < 9; c++) {
-            int num = playfield[r][c];
-            if (num != 0) {
-                numSeen.makeSeen(num);
+        prepareGrid();
+        if (!possibilities.load(playfield)) {
+            return new ArrayList<>(); // a number appears twice in a row, column or square
+        }
+        // A aborted technique run has not proved anything wrong, the search will continue from where it stopped
+        runTechniques();
+        collectSolutions(maxSolutions);
+        ArrayList<int[][]> solutions = new ArrayList<>(solutionCount);
+        for (int i = 0; i < solutionCount; i++) {
+            int[][] solution = new int[playfield.length][];
+            for (int r = 0; r < playfield.length; r++) {
+                solution[r] = solutionBoards.get(i)[r].clone();
             }
+            solutions.add(solution);
         }
-        return numSeen.getUnseen();
+        return solutions;
     }
 
     /**
-     * Returns all number that can is missing on the given column
+     * Sets up the possibilities from the playfield without running any solving technique, used by the benchmarks to
+     * run the techniques one at a time from a known state.
      *
-     * @param c: the column number (0-8)
-     * @return a int array containing the missing numbers
-     * @throws Exception: if this instance of the class has not been initialized
+     * @return the possibilities the solving techniques works on
      */
-    private int[] scanCol(int c) throws Exception {
-        if (!isInitialized) {
-            throw new Exception("Class not initialized, playfield not set");
-        }
+    PossibilityGrid loadPossibilities() {
+        prepareGrid();
+        possibilities.load(playfield);
+        return possibilities;
+    }
 
-        NumSeen numSeen = new NumSeen();
-        for (int r = 0; r < 9; r++) {
-            int num = playfield[r][c];
-            if (num != 0) {
-                numSeen.makeSeen(num);
-            }
+    /**
+     * Replaces the possibilities and the storage of the search with ones of the size of the playfield if the size has
+     * changed
+     */
+    private void prepareGrid() {
+        if (possibilities.getUnits().getSize() != playfield.length) {
+            possibilities = new PossibilityGrid(SodukuUnits.forBoardSize(playfield.length));
+            solutionBoards.clear();
         }
-        return numSeen.getUnseen();
     }
 
     /**
-     * removes the possibility of value in the cell [r, c]. Safe to call even if value is not a possibility before the call.
+     * Runs the technique pipeline on the current possibilities until none of the techniques makes any progress. The
+     * techniques run after a guess are not rated, the guess is.
      *
-     * @param r     the row of the target cell
-     * @param c     the column of the target cell
-     * @param value the number to remove
+     * @return false if the techniques was aborted because one of them reported progress without changing anything,
+     * true otherwise
      */
-    private void removePossibilityCell(int r, int c, int value) {
-        everythingPossible[r][c] = ListAndArrayUtils.excludeValue(everythingPossible[r][c], value);
+    private boolean runTechniques() {
+        return pipeline.run(possibilities, stats, null, deadline);
     }
 
     /**
-     * Use this method then the position of a number becomes known, this will update everythingPossible to reduce the
-     * number of unknown cells that still can contain the found number.
-     * <p>
-     * Removes the possibilities for value on row r, column c and the square this cell is in as well as ALL
-     * possibilities of cell [r, c]. Safe to call even if any of the affected cells has no possibilities.
-     *
-     * @param r     the row of the just filled cell
-     * @param c     the column of the just filled cell
-     * @param value the number that got placed in the just filled cell
+     * @param techniquesFinished the value returned by runTechniques
+     * @return why the technique loop ended
      */
-    private void removePossibilities(int r, int c, int value) {
-        for (int i = 0; i < 9; i++) { // value can no longer be placed in row r
-            everythingPossible[r][i] = ListAndArrayUtils.excludeValue(everythingPossible[r][i], value);
+    private SolveStats.LoopEndReason loopEndReason(boolean techniquesFinished) {
+        if (deadline != null && deadline.isExpired()) {
+            return SolveStats.LoopEndReason.TIMED_OUT;
+        }
+        if (!techniquesFinished) {
+            return SolveStats.LoopEndReason.FAKED_PROGRESS;
         }
-        for (int i = 0; i < 9; i++) { // value can no longer be placed in column c
-            everythingPossible[i][c] = ListAndArrayUtils.excludeValue(everythingPossible[i][c], value);
+        if (possibilities.getCellsFilled() == possibilities.getUnits().getCellCount()) {
+            return SolveStats.LoopEndReason.SOLVED;
         }
-        int row = SodukuCoordUtils.topLeftRow(r);
-        int col = SodukuCoordUtils.topLeftCol(c);
-        for (int i = 0; i < 9; i++) { // value can no longer be placed in the square of cell [r, c]
-            everythingPossible[row + i / 3][col + i % 3] = ListAndArrayUtils.excludeValue(
-                    everythingPossible[row + i / 3][col + i % 3], value);
+        if (possibilities.hasContradiction()) {
+            return SolveStats.LoopEndReason.CONTRADICTION;
         }
-        everythingPossible[r][c] = new int[]{}; // Cell now filled, no new numbers can be placed in it
+        return SolveStats.LoopEndReason.STALLED;
     }
 
     /**
-     * Creates a version of everythingPossible that, instead of being ordered [row][column], is order [square][positionInSquare].
-     * It does not update automatically if everythingPossible changes, it has to be done manually or by calling this method
-     * again for a updated version.
+     * Starts a search for solutions from the current possibilities and stores the found solutions in solutionBoards.
      *
-     * @return a version of everythingPossible indexed after square number and index inside a square
+     * @param maxSolutions the number of solutions to find before stopping the search
      */
-    private int[][][] getSquaresPossibilitiesArray() {
-        // If Java had pointers this part could be more efficient!
-        // This int[][][] could be generated once and because this array is just everythingPossible in another order
-        // it could just be pointers referring to the related cell and all changes in everything possible would be visible
-        // in this array and it would never need to be recalculated.
-        // Currently the code using the returned array would not be able to work very efficient, after it found
-        // something and updated everythingPossible it would a) risk to miss something due to outdated data to work on
-        // or b) require to update the returned array or call this method again to recalculate it.
-        int[][][] arraySquares = new int[9][9][];
-        for (int sr = 0; sr < 3; sr++) { //square row
-            for (int sc = 0; sc < 3; sc++) { // square column
-                for (int r = sr * 3, i = 0; r < sr * 3 + 3; r++) { // row in square
-                    arraySquares[sr * 3 + sc][i++] = everythingPossible[r][sc * 3];
-                    arraySquares[sr * 3 + sc][i++] = everythingPossible[r][sc * 3 + 1];
-                    arraySquares[sr * 3 + sc][i++] = everythingPossible[r][sc * 3 + 2];
-                }
-            }
+    private void collectSolutions(int maxSolutions) {
+        solutionCount = 0;
+        this.maxSolutions = maxSolutions;
+        guessCount = 0;
+        stopped = false;
+        timedOut = false;
+        if (possibilities.hasContradiction()) {
+            return;
+        }
+        if (possibilities.getCellsFilled() == possibilities.getUnits().getCellCount()) {
+            addSolution();
+        } else {
+            search();
         }
-        return arraySquares;
     }
 
     /**
-     * Creates a version of everythingPossible that, instead of being ordered [row][column], is order [column][row].
-     * It does not update automatically if everythingPossible changes, it has to be done manually or by calling this method
-     * again for a updated version.
+     * Finds solutions by guessing. The empty cell with the fewest possibilities is picked and each of its
+     * possibilities is tried in turn, after every guess the solving techniques are run and if that does not solve the
+     * soduku this method is called again to make the next guess. A guess is undone if it leads to a contradiction or
+     * after the solutions it leads to has been added to solutionBoards, by rolling the possibilities back to the
+     * checkpoint taken before it.
+     * <p>
+     * When true is returned the possibilities contains the last found solution, on false or if the search was stopped
+     * they are left as they were before the call.
      *
-     * @return a version of everythingPossible indexed after column then row (not row then column as everythingPossible)
+     * @return true if maxSolutions solutions has been found or the SolveProgressListener stopped the search and the
+     * search should stop, false otherwise
      */
-    private int[][][] getColumnPossibilities() {
-        int[][][] columnPossibilities = new int[9][][];
-        for (int col = 0; col < 9; col++) {
-            columnPossibilities[col] = new int[9][];
-            for (int row = 0; row < 9; row++) {
-                columnPossibilities[col][row] = everythingPossible[row][col];
+    private boolean search() {
+        int cellCount = possibilities.getUnits().getCellCount();
+        int bestCell = -1, bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < cellCount && bestCount > 2; cell++) {
+            int count = Integer.bitCount(possibilities.getPossible(cell));
+            if (count != 0 && count < bestCount) {
+                bestCell = cell;
+                bestCount = count;
             }
         }
-        return columnPossibilities;
-    }
-
-    /**
-     * Searches through the everythingPossible multidimensional array after numbers that can only be placed in one cell
-     * in a row/column/square. The result of the search is returned in a {@code ArrayList<Triple<Integer, Integer, Integer>>}
-     * if nothing was found a empty list is returned.
-     * <pre>
-     * triple.getLeft() contains a row number
-     * triple.getMiddle() contains a column number
-     * triple.getRight() contains the number that needs to be placed in the specified row and column
-     * </pre>
-     *
-     * @return {@code ArrayList<Triple<Integer, Integer, Integer>>}
-     * @throws Exception if this instance of the class has not been initialized
-     */
-    private ArrayList<Triple<Integer, Integer, Integer>> singlePossible() throws Exception {
-        if (!isInitialized) {
-            throw new Exception("Class not initialized, playfield not set");
+        if (bestCell == -1) {
+            return false;
         }
 
-        ArrayList<Triple<Integer, Integer, Integer>> answers = new ArrayList<>();
-
-        //Square
-        int[][][] squareArray = getSquaresPossibilitiesArray();
-        for (int sq = 0; sq < 9; sq++) {
-            for (int i = 1; i < 10; i++) {
-                int position = ListAndArrayUtils.singlePossibleFinder(squareArray[sq], i);
-                if (position > -1) {
-                    int row = SodukuCoordUtils.squareNrAndPosToRow(sq, position);
-                    int col = SodukuCoordUtils.squareNrAndPosToCol(sq, position);
-                    answers.add(new ImmutableTriple<>(row, col, i));
-                    removePossibilities(row, col, i);
-                }
+        int checkpoint = possibilities.checkpoint();
+        int guesses = possibilities.getPossible(bestCell);
+        while (guesses != 0) {
+            guessCount++;
+            if (deadline != null && deadline.isExpired()) {
+                timedOut = true;
+                stopped = true;
+                return true;
             }
-        }
-
-        //Row
-        for (int r = 0; r < 9; r++) {
-            int[][] rowPossible = new int[9][];
-            for (int c = 0; c < 9; c++) { // not changing to arrayCopy because I think it will make it more difficult to follow then the very similar line in the "//Column" block cant be changed to arrayCopy
-                rowPossible[c] = everythingPossible[r][c];
+            if (progressListener != null
+                    && !progressListener.progress(guessCount, possibilities.getCellsFilled(), cellCount)) {
+                stopped = true;
+                return true;
             }
-            for (int i = 1; i < 10; i++) {
-                int position = ListAndArrayUtils.singlePossibleFinder(rowPossible, i);
-                if (position > -1) {
-                    answers.add(new ImmutableTriple<>(r, position, i));
-                    removePossibilities(r, position, i);
-                }
+            possibilities.place(bestCell, PossibilityGrid.lowestNumber(guesses));
+            guesses &= guesses - 1;
+            if (stats != null) {
+                stats.recordGuess();
             }
-        }
-
-        //Column
-        for (int c = 0; c < 9; c++) {
-            int[][] columnPossible = new int[9][];
-            for (int r = 0; r < 9; r++) {
-                columnPossible[r] = everythingPossible[r][c];
+            if (rating != null) {
+                rating.recordGuess();
             }
-            for (int i = 1; i < 10; i++) {
-                int position = ListAndArrayUtils.singlePossibleFinder(columnPossible, i);
-                if (position > -1) {
-                    answers.add(new ImmutableTriple<>(position, c, i));
-                    removePossibilities(position, c, i);
+
+            // A aborted technique run has not proved anything wrong, keep guessing from where it stopped
+            runTechniques();
+            if (!possibilities.hasContradiction()) {
+                if (possibilities.getCellsFilled() == cellCount ? addSolution() : search()) {
+                    if (stopped) {
+                        possibilities.rollback(checkpoint);
+                    }
+                    return true;
                 }
             }
+            possibilities.rollback(checkpoint);
         }
-        return answers;
+        return false;
     }
 
     /**
-     * Uses the solving technique locked candidates to find possibilities that can be removed.
+     * Adds a copy of the currently filled possibilities to solutionBoards
      *
-     * @return true if any changes has been made to everythingPossible, otherwise false.
+     * @return true if maxSolutions solutions has been found, false otherwise
      */
-    private boolean lockedPossibilities() {
-        // type 1: A number is only possible to place in a single row or a single column inside a square
-        // Then all squares in that row/column can have that number removed from the row/column in question
-
-        // type 2: A square is alone to be able to have a number on a specific row or column
-        // Then all cells in that square that is not on that row/column can have the number removed
-
-        // This method is long and does almost the same thing four times, but I don't see any good ways to split it up.
-
-        boolean hasPossibilitiesBeenRemoved = false;
-        int[][][] squares = getSquaresPossibilitiesArray();
-
-        for (int sq = 0; sq < 9; sq++) {
-            //type 1 rows
-
-            ArrayList<Integer> top = ListAndArrayUtils.intArrayToIntegerList(squares[sq][0]);
-            top.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][1]));
-            top.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][2]));
-
-            ArrayList<Integer> mid = ListAndArrayUtils.intArrayToIntegerList(squares[sq][3]);
-            mid.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][4]));
-            mid.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][5]));
-
-            ArrayList<Integer> bot = ListAndArrayUtils.intArrayToIntegerList(squares[sq][6]);
-            bot.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][7]));
-            bot.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][8]));
-
-            int[][] squareRowPossibilities = new int[3][];
-            squareRowPossibilities[0] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(top));
-            squareRowPossibilities[1] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(mid));
-            squareRowPossibilities[2] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(bot));
-
-            for (int numToCheck = 1; numToCheck < 10; numToCheck++) {
-                int index = ListAndArrayUtils.singlePossibleFinder(squareRowPossibilities, numToCheck);
-                if (index == -1) {
-                    continue;
-                }
-                int rowToAffect = SodukuCoordUtils.squareNrAndPosToRow(sq, index * 3);
-                int firstColInSq = SodukuCoordUtils.squareNrAndPosToCol(sq, 0);
-                int[] columnsToAffect = new int[6];
-                int[] sqIndexToAffect = new int[]{index * 3, index * 3 + 1, index * 3 + 2};
-                int[] squaresToAffect = new int[2];
-                switch (firstColInSq) {
-                    case 0:
-                        columnsToAffect = new int[]{3, 4, 5, 6, 7, 8};
-                        squaresToAffect = new int[]{sq + 1, sq + 2};
-                        break;
-                    case 3:
-                        columnsToAffect = new int[]{0, 1, 2, 6, 7, 8};
-                        squaresToAffect = new int[]{sq - 1, sq + 1};
-                        break;
-                    case 6:
-                        columnsToAffect = new int[]{0, 1, 2, 3, 4, 5};
-                        squaresToAffect = new int[]{sq - 2, sq - 1};
-                        break;
-                }
-                for (int c : columnsToAffect) {
-                    // Do not report progress for unchanged everythingPossible
-                    if (ListAndArrayUtils.contains(everythingPossible[rowToAffect][c], numToCheck)) {
-                        removePossibilityCell(rowToAffect, c, numToCheck);
-                        hasPossibilitiesBeenRemoved = true;
-                    }
-                }
-                for (int i : sqIndexToAffect) { // waste of cpu to check if it is in array or not, it will not be there afterwards anyway
-                    squares[squaresToAffect[0]][i] = ListAndArrayUtils.excludeValue(squares[squaresToAffect[0]][i], numToCheck);
-                    squares[squaresToAffect[1]][i] = ListAndArrayUtils.excludeValue(squares[squaresToAffect[1]][i], numToCheck);
-                }
-            }
-
-            // type 1 column
-
-            ArrayList<Integer> left = ListAndArrayUtils.intArrayToIntegerList(squares[sq][0]);
-            left.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][3]));
-            left.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][6]));
-
-            ArrayList<Integer> center = ListAndArrayUtils.intArrayToIntegerList(squares[sq][1]);
-            center.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][4]));
-            center.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][7]));
-
-            ArrayList<Integer> right = ListAndArrayUtils.intArrayToIntegerList(squares[sq][2]);
-            right.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][5]));
-            right.addAll(ListAndArrayUtils.intArrayToIntegerList(squares[sq][8]));
-
-            int[][] squareColPossibilities = new int[3][];
-            squareColPossibilities[0] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(left));
-            squareColPossibilities[1] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(center));
-            squareColPossibilities[2] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(right));
-
-            for (int numToCheck = 1; numToCheck < 10; numToCheck++) {
-                int index = ListAndArrayUtils.singlePossibleFinder(squareColPossibilities, numToCheck);
-                if (index == -1) {
-                    continue;
-                }
-                int colToAffect = SodukuCoordUtils.squareNrAndPosToCol(sq, index);
-                int firstRowInSq = SodukuCoordUtils.squareNrAndPosToRow(sq, 0);
-                int[] rowsToAffect = new int[6];
-                int[] sqIndexToAffect = new int[]{index % 3, (index % 3) + 3, (index % 3) + 6};
-                int[] squaresToAffect = new int[2];
-                switch (firstRowInSq) {
-                    case 0:
-                        rowsToAffect = new int[]{3, 4, 5, 6, 7, 8};
-                        squaresToAffect = new int[]{sq + 3, sq + 6};
-                        break;
-                    case 3:
-                        rowsToAffect = new int[]{0, 1, 2, 6, 7, 8};
-                        squaresToAffect = new int[]{sq - 3, sq + 3};
-                        break;
-                    case 6:
-                        rowsToAffect = new int[]{0, 1, 2, 3, 4, 5};
-                        squaresToAffect = new int[]{sq - 6, sq - 3};
-                        break;
-                }
-                for (int r : rowsToAffect) {
-                    // Do not report progress for unchanged everythingPossible
-                    if (ListAndArrayUtils.contains(everythingPossible[r][colToAffect], numToCheck)) {
-                        removePossibilityCell(r, colToAffect, numToCheck);
-                        hasPossibilitiesBeenRemoved = true;
-                    }
-                }
-                for (int i : sqIndexToAffect) { // waste of cpu to check if it is in array or not, it will not be there afterwards anyway
-                    squares[squaresToAffect[0]][i] = ListAndArrayUtils.excludeValue(squares[squaresToAffect[0]][i], numToCheck);
-                    squares[squaresToAffect[1]][i] = ListAndArrayUtils.excludeValue(squares[squaresToAffect[1]][i], numToCheck);
-                }
-            }
-        }
-
-        // type 2 row
-
-        for (int r = 0; r < 9; r++) {
-            ArrayList<Integer> left = ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][0]);
-            left.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][1]));
-            left.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][2]));
-
-            ArrayList<Integer> center = ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][3]);
-            center.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][4]));
-            center.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][5]));
-
-            ArrayList<Integer> right = ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][6]);
-            right.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][7]));
-            right.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[r][8]));
-
-            int[][] rowPartsPossibilities = new int[3][];
-            rowPartsPossibilities[0] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(left));
-            rowPartsPossibilities[1] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(center));
-            rowPartsPossibilities[2] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(right));
-
-            for (int numToCheck = 1; numToCheck < 10; numToCheck++) {
-                int index = ListAndArrayUtils.singlePossibleFinder(rowPartsPossibilities, numToCheck);
-                if (index == -1) {
-                    continue;
-                }
-                int[] sqPositionsToAffect = new int[6];
-                int sqToAffect = SodukuCoordUtils.coordToSquareNr(r, index * 3);
-                switch (r % 3) {
-                    case 0:
-                        sqPositionsToAffect = new int[]{3, 4, 5, 6, 7, 8};
-                        break;
-                    case 1:
-                        sqPositionsToAffect = new int[]{0, 1, 2, 6, 7, 8};
-                        break;
-                    case 2:
-                        sqPositionsToAffect = new int[]{0, 1, 2, 3, 4, 5};
-                        break;
-                }
-                for (int p : sqPositionsToAffect) {
-                    int row = SodukuCoordUtils.squareNrAndPosToRow(sqToAffect, p);
-                    int col = SodukuCoordUtils.squareNrAndPosToCol(sqToAffect, p);
-
-                    // Do not report progress for unchanged everythingPossible
-                    if (ListAndArrayUtils.contains(everythingPossible[row][col], numToCheck)) {
-                        removePossibilityCell(row, col, numToCheck);
-                        hasPossibilitiesBeenRemoved = true;
-                    }
-                }
-            }
-
+    private boolean addSolution() {
+        if (solutionBoards.size() == solutionCount) {
+            solutionBoards.add(new int[playfield.length][playfield.length]);
         }
-
-        // type 2 column
-
-        for (int c = 0; c < 9; c++) {
-            ArrayList<Integer> top = ListAndArrayUtils.intArrayToIntegerList(everythingPossible[0][c]);
-            top.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[1][c]));
-            top.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[2][c]));
-
-            ArrayList<Integer> mid = ListAndArrayUtils.intArrayToIntegerList(everythingPossible[3][c]);
-            mid.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[4][c]));
-            mid.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[5][c]));
-
-            ArrayList<Integer> bot = ListAndArrayUtils.intArrayToIntegerList(everythingPossible[6][c]);
-            bot.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[7][c]));
-            bot.addAll(ListAndArrayUtils.intArrayToIntegerList(everythingPossible[8][c]));
-
-            int[][] colPartsPossibilities = new int[3][];
-            colPartsPossibilities[0] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(top));
-            colPartsPossibilities[1] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(mid));
-            colPartsPossibilities[2] = ListAndArrayUtils.integerListToIntArray(ListAndArrayUtils.sortUnique(bot));
-
-            for (int numToCheck = 1; numToCheck < 10; numToCheck++) {
-                int index = ListAndArrayUtils.singlePossibleFinder(colPartsPossibilities, numToCheck);
-                if (index == -1) {
-                    continue;
-                }
-                int[] sqPositionsToAffect = new int[6];
-                int sqToAffect = SodukuCoordUtils.coordToSquareNr(index * 3, c);
-                switch (c % 3) {
-                    case 0:
-                        sqPositionsToAffect = new int[]{1, 2, 4, 5, 7, 8}; // not 0, 3, 6. (left col)
-                        break;
-                    case 1:
-                        sqPositionsToAffect = new int[]{0, 2, 3, 5, 6, 8}; // not 1, 4, 7. (center col)
-                        break;
-                    case 2:
-                        sqPositionsToAffect = new int[]{0, 1, 3, 4, 6, 7}; // not 2, 5, 8. (right col)
-                        break;
-                }
-                for (int p : sqPositionsToAffect) {
-                    int row = SodukuCoordUtils.squareNrAndPosToRow(sqToAffect, p);
-                    int col = SodukuCoordUtils.squareNrAndPosToCol(sqToAffect, p);
-
-                    // Do not report progress for unchanged everythingPossible
-                    if (ListAndArrayUtils.contains(everythingPossible[row][col], numToCheck)) {
-                        removePossibilityCell(row, col, numToCheck);
-                        hasPossibilitiesBeenRemoved = true;
-                    }
-                }
-            }
-        }
-
-        return hasPossibilitiesBeenRemoved;
+        possibilities.copyValuesTo(solutionBoards.get(solutionCount++));
+        return solutionCount >= maxSolutions;
     }
 
     /**
-     * Uses the solving technique naked pairs to find possibilities that can be removed.
+     * Called in the beginning of solve() to make a quick check if the set board is solvable
+     * Tests if a number appear more than once in a single row, column or square. The amount of given numbers are also
+     * counted because if less than 17 numbers are given on a 9x9 board it has been proved to not have exactly one
+     * solution.
+     * If false is returned, solveResult has been set to contain NOT_SOLVABLE or MULTIPLE_SOLUTIONS.
      *
-     * @return rue if any changes has been made to everythingPossible, otherwise false.
+     * @return false if there are definitely not exact one solution (#solutions != 1) and true if this quick check could
+     * not tell how many solutions there are (0, 1 or >1)
      */
-    private boolean nakedPairs() {
-        boolean hasPossibilitiesBeenRemoved = false;
-
-        for (int type = 0; type < 3; type++) {
-            int[][][] dataset = new int[9][][];
-            switch (type) {
-                case 0:
-                    dataset = getSquaresPossibilitiesArray();
-                    break;
-                case 1:
-                    dataset = getColumnPossibilities();
-                    break;
-                case 2:
-                    dataset = everythingPossible; // rows in first dimension
-            }
-
-
-            for (int dimOneRow = 0; dimOneRow < 9; dimOneRow++) {
-                ArrayList<Integer> possiblePairs = new ArrayList<>();
-                for (int i = 0; i < 9; i++) {
-                    if (dataset[dimOneRow][i].length == 2) {
-                        possiblePairs.add(i);
-                    }
-                }
+    private boolean isPlayfieldValid() {
+        int size = playfield.length;
+        int boxSize = SodukuUnits.forBoardSize(size).getBoxSize();
+        if (seenInRow.length != size) {
+            seenInRow = new int[size];
+            seenInCol = new int[size];
+            seenInSq = new int[size];
+        } else {
+            Arrays.fill(seenInRow, 0);
+            Arrays.fill(seenInCol, 0);
+            Arrays.fill(seenInSq, 0);
+        }
+        int numbersGiven = 0;
 
-                for (int x = 0; x < possiblePairs.size(); x++) {
-                    if (possiblePairs.size() < 2) {
-                        break;
-                    }
-                    int theSame = 0;
-                    for (int y = x + 1; y < possiblePairs.size(); y++) {
-                        if (Arrays.equals(dataset[dimOneRow][possiblePairs.get(x)], dataset[dimOneRow][possiblePairs.get(y)])) {
-                            theSame++;
-                        }
-                    }
-                    if (theSame == 0) {
-                        possiblePairs.remove(x);
-                        x--;
-                    } else if (theSame > 1) {
-                        for (int y = possiblePairs.size(); y > x; y--) {
-                            if (Arrays.equals(dataset[dimOneRow][possiblePairs.get(x)], dataset[dimOneRow][possiblePairs.get(y)])) {
-                                possiblePairs.remove(y); // Probably a sign for not being uniquely solvable
-                            }
-                        }
-                        possiblePairs.remove(x);
-                        x--;
-
-                    } else { // theSame == 1
-                        int a = x + 1;
-                        for (; a < possiblePairs.size(); a++) {
-                            if (Arrays.equals(dataset[dimOneRow][possiblePairs.get(x)], dataset[dimOneRow][possiblePairs.get(a)])) {
-                                break;
-                            }
-                        }
-
-                        int pairA = dataset[dimOneRow][possiblePairs.get(x)][0];
-                        int pairB = dataset[dimOneRow][possiblePairs.get(x)][1];
-                        for (int i = 0; i < 9; i++) {
-                            if (possiblePairs.get(x) == i || possiblePairs.get(a) == i) {
-                                continue;
-                            }
-                            int row = 0, col = 0;
-                            switch (type) {
-                                case 0:
-                                    row = SodukuCoordUtils.squareNrAndPosToRow(dimOneRow, i);
-                                    col = SodukuCoordUtils.squareNrAndPosToCol(dimOneRow, i);
-                                    break;
-                                case 1:
-                                    row = i;
-                                    col = dimOneRow;
-                                    break;
-                                case 2:
-                                    row = dimOneRow;
-                                    col = i;
-                            }
-                            if (ListAndArrayUtils.contains(everythingPossible[row][col], pairA) ||
-                                    ListAndArrayUtils.contains(everythingPossible[row][col], pairB)) {
-                                removePossibilityCell(row, col, pairA);
-                                removePossibilityCell(row, col, pairB);
-                                hasPossibilitiesBeenRemoved = true;
-                            }
-                        }
-                        possiblePairs.remove(a);
-                        possiblePairs.remove(x);
-                        x--;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int sq = SodukuCoordUtils.coordToSquareNr(row, col, boxSize);
+                int number = playfield[row][col];
+                if (number != 0) {
+                    numbersGiven++;
+                    int bit = 1 << (number - 1);
+                    if (((seenInCol[col] | seenInRow[row] | seenInSq[sq]) & bit) != 0) {
+                        solveResult = SolveResults.NOT_SOLVABLE; // at least one number appears >1 time in a row/col/square
+                        return false;
+                    } else {
+                        seenInCol[col] |= bit;
+                        seenInRow[row] |= bit;
+                        seenInSq[sq] |= bit;
                     }
                 }
             }
         }
-        return hasPossibilitiesBeenRemoved;
+        if (size == 9 && numbersGiven < 17) { // It has been proved that no soduku with less than 17 clues can have exactly one solution.
+            solveResult = SolveResults.MULTIPLE_SOLUTIONS;
+            return false;
+        }
+
+        return true;
     }
 
     /**
-     * Uses the solving technique hidden pairs to find possibilities that can be removed.
-     *
-     * @return true if any changes has been made to everythingPossible, otherwise false.
+     * Tries to decide if the soduku has been solved or not, if it can't be solved or if it has multiple solutions and
+     * sets the variable solveResult accordingly
      */
-    private boolean hiddenPairs() {
-
-        // if two numbers only appear twice in a row/col/sq and both times they are together
-        // then all other numbers in this two cells can be removed
-
-        boolean hasPossibilitiesBeenRemoved = false;
-
-        for (int type = 0; type < 3; type++) {
-            int[][][] dataset = new int[9][][];
-            switch (type) {
-                case 0:
-                    dataset = getSquaresPossibilitiesArray();
-                    break;
-                case 1:
-                    dataset = getColumnPossibilities();
-                    break;
-                case 2:
-                    dataset = everythingPossible; // rows in first dimension
-            }
+    private void validateSolve() throws Exception {
+        boolean numbersMissing = false;
 
-            for (int dimOneRow = 0; dimOneRow < 9; dimOneRow++) {
-                ArrayList<ArrayList<Integer>> numberAppearsInIndex = new ArrayList<>();
-                numberAppearsInIndex.add(0, new ArrayList<>()); // dummy to not get IndexOutOfBoundsException
-                for (int number = 1; number < 10; number++) {
-                    numberAppearsInIndex.add(number, new ArrayList<>());
-                    for (int index = 0; index < 9; index++) {
-                        if (ListAndArrayUtils.contains(dataset[dimOneRow][index], number)) {
-                            numberAppearsInIndex.get(number).add(index);
-                        }
-                    }
-                }
-                for (int i = 9; i > 0; i--) {
-                    if (numberAppearsInIndex.get(i).size() != 2) {
-                        numberAppearsInIndex.get(i).clear();
-                    }
-                }
-                for (int number = 1; number < 10; number++) {
-                    if (numberAppearsInIndex.get(number).isEmpty()) {
-                        continue;
-                    }
-                    for (int secondNumber = number + 1; secondNumber < 10; secondNumber++) {
-                        if (numberAppearsInIndex.get(secondNumber).isEmpty()) {
-                            continue;
-                        }
-                        if (numberAppearsInIndex.get(number).get(0).equals(numberAppearsInIndex.get(secondNumber).get(0)) &&
-                                numberAppearsInIndex.get(number).get(1).equals(numberAppearsInIndex.get(secondNumber).get(1))) {
-
-                            int row = 0, col = 0;
-                            int row2 = 0, col2 = 0;
-                            switch (type) {
-                                case 0:
-                                    row = SodukuCoordUtils.squareNrAndPosToRow(dimOneRow, numberAppearsInIndex.get(number).get(0));
-                                    col = SodukuCoordUtils.squareNrAndPosToCol(dimOneRow, numberAppearsInIndex.get(number).get(0));
-                                    row2 = SodukuCoordUtils.squareNrAndPosToRow(dimOneRow, numberAppearsInIndex.get(number).get(1));
-                                    col2 = SodukuCoordUtils.squareNrAndPosToCol(dimOneRow, numberAppearsInIndex.get(number).get(1));
-                                    break;
-                                case 1:
-                                    row = numberAppearsInIndex.get(number).get(0);
-                                    col = dimOneRow;
-                                    row2 = numberAppearsInIndex.get(number).get(1);
-                                    col2 = dimOneRow;
-                                    break;
-                                case 2:
-                                    row = dimOneRow;
-                                    col = numberAppearsInIndex.get(number).get(0);
-                                    row2 = dimOneRow;
-                                    col2 = numberAppearsInIndex.get(number).get(1);
-                            }
-                            ArrayList<Integer> possibilities = ListAndArrayUtils.intArrayToIntegerList(dataset[dimOneRow][numberAppearsInIndex.get(number).get(0)]);
-                            possibilities.addAll(ListAndArrayUtils.intArrayToIntegerList(dataset[dimOneRow][numberAppearsInIndex.get(number).get(1)]));
-                            possibilities = ListAndArrayUtils.sortUnique(possibilities);
-                            for (int possibility : possibilities) {
-                                if (number != possibility && secondNumber != possibility) {
-                                    removePossibilityCell(row, col, possibility);
-                                    removePossibilityCell(row2, col2, possibility);
-                                    hasPossibilitiesBeenRemoved = true;
-                                }
-                            }
-                        }
+        if (!isPlayfieldValid()) {
+            // something is wrong in the solving algorithms
+            System.err.println("isPlayfieldValid inside validateSolve returned false. Something is wrong in the solving algorithms");
+            return;
+        }
+        for (int row = 0; row < playfield.length; row++) {
+            for (int col = 0; col < playfield.length; col++) {
+                if (playfield[row][col] == 0) {
+                    numbersMissing = true;
+                    int possibleCount = Integer.bitCount(possibilities.getPossible(row, col));
+                    if (possibleCount == 0) {
+                        // A cell is empty and it is not possible to place any number in it without breaking the unique in row/col/sq law
+                        solveResult = SolveResults.NOT_SOLVABLE;
+                        return;
+                    } else if (possibleCount == 1) { // Now something is wrong!
+                        solveResult = SolveResults.SOLVE_FAILED;
+                        System.err.println("Now something is wrong! validateSolve is running and the cell [" + row + ", " + col + "] has one possibility");
+                        return;
                     }
                 }
             }
+        }
 
+        if (numbersMissing) {
+            solveResult = SolveResults.SOLVE_FAILED;
+        } else if (solutionCount > 1) {
+            // The search found more than the solution now in the playfield
+            solveResult = SolveResults.MULTIPLE_SOLUTIONS;
+        } else {
+            solveResult = SolveResults.SOLVED;
         }
-        return hasPossibilitiesBeenRemoved;
     }
 }
@@ -0,0 +1,110 @@
+package main.java.SodukuSolver;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lends engines to threads so a engine and everything it has allocated can be reused for many boards. At most capacity
+ * engines are lent out at the same time, borrow() waits then all of them are in use. Engines are created the first time
+ * they are needed and kept by the pool after that.
+ * <pre>
+ *     SodukuEngine engine = pool.borrow();
+ *     try {
+ *         engine.setPlayfield(board);
+ *         engine.solve();
+ *         ...
+ *     } finally {
+ *         pool.giveBack(engine);
+ *     }
+ * </pre>
+ * The methods of the pool can be called from any thread, the borrowed engine must only be used by the thread that
+ * borrowed it until it is given back.
+ */
+public class SodukuSolverPool {
+
+    private final SolverBackend backend;
+    private final int capacity;
+    private final Semaphore available;
+    // Engines that has been created and given back, at most capacity of them
+    private final Queue<SodukuEngine> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param backend  the type of engines to lend out
+     * @param capacity the largest number of engines lent out at the same time, for solving on all cores use
+     *                 Runtime.getRuntime().availableProcessors()
+     */
+    public SodukuSolverPool(SolverBackend backend, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1, was " + capacity);
+        }
+        this.backend = backend;
+        this.capacity = capacity;
+        available = new Semaphore(capacity);
+    }
+
+    /**
+     * Borrows a engine, waits until one is given back if capacity engines are lent out
+     *
+     * @return a engine with no playfield set, give it back with giveBack() then done
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public SodukuEngine borrow() throws InterruptedException {
+        available.acquire();
+        return take();
+    }
+
+    /**
+     * Borrows a engine, waits at most timeout for one to be given back if capacity engines are lent out
+     *
+     * @param timeout the longest time to wait
+     * @param unit    the unit of timeout
+     * @return a engine with no playfield set or null if none was given back in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public SodukuEngine tryBorrow(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!available.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        return take();
+    }
+
+    private SodukuEngine take() {
+        SodukuEngine engine = idle.poll();
+        return engine != null ? engine : backend.newEngine();
+    }
+
+    /**
+     * Gives back a borrowed engine. It is reset so the next borrower does not see the board, result or progress
+     * listener of the last one.
+     *
+     * @param engine a engine borrowed from this pool, it must not be used after this call
+     */
+    public void giveBack(SodukuEngine engine) {
+        engine.reset();
+        idle.offer(engine);
+        available.release();
+    }
+
+    /**
+     * @return the largest number of engines lent out at the same time
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of engines that can be borrowed right now without waiting
+     */
+    public int getAvailable() {
+        return available.availablePermits();
+    }
+
+    /**
+     * @return the number of engines created so far that are not lent out
+     */
+    public int getIdle() {
+        return idle.size();
+    }
+}
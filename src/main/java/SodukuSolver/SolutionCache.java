@@ -0,0 +1,116 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.CanonicalForm;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the results of solved boards by their CanonicalForm, so a board that is a relabelled, transposed or
+ * permuted copy of a board solved before does not have to be solved again. The results are stored in the form and
+ * mapped back to the orientation of the board looked up.
+ * <p>
+ * At most capacity results are kept, the least recently used one is removed then a new one is added to a full cache.
+ * A cache can be shared by solvers in different threads.
+ */
+public class SolutionCache {
+
+    private final Map<Key, Entry> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity the largest number of results to keep
+     */
+    public SolutionCache(int capacity) {
+        entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            // Entry alone would mean the Entry class of LinkedHashMap in here
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SolutionCache.Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up the result of a board with the form form and writes the board after the solve to target
+     *
+     * @param form   the form of the board to look up
+     * @param target the board to write the result to, in the orientation of the board the form was made from.
+     *               It is not changed if the result is not in the cache
+     * @return the cached result or null if the form is not in the cache
+     */
+    public SodukuSolver.SolveResults lookup(CanonicalForm form, int[][] target) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(new Key(form.getCells()));
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        form.fromForm(entry.cells, target);
+        return entry.result;
+    }
+
+    /**
+     * Stores the result of solving a board
+     *
+     * @param form      the form of the board before it was solved
+     * @param playfield the board after the solve attempt, in the orientation of the board the form was made from
+     * @param result    the result of the solve attempt
+     */
+    public void store(CanonicalForm form, int[][] playfield, SodukuSolver.SolveResults result) {
+        Entry entry = new Entry(form.toForm(playfield), result);
+        synchronized (this) {
+            entries.put(new Key(form.getCells()), entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The cells of a form, compared by content
+     */
+    private static class Key {
+        private final byte[] cells;
+        private final int hash;
+
+        Key(byte[] cells) {
+            this.cells = cells;
+            hash = Arrays.hashCode(cells);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(cells, ((Key) other).cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class Entry {
+        private final byte[] cells;
+        private final SodukuSolver.SolveResults result;
+
+        Entry(byte[] cells, SodukuSolver.SolveResults result) {
+            this.cells = cells;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.SodukuSolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A time limit and cancellation token for a solve, given to SodukuEngine.solve(SolveDeadline). The engines check it
+ * between the solving techniques and before every guess, and stop with the result TIMED_OUT once it has expired. A
+ * deadline expires then its time is up or cancel() is called, whichever comes first.
+ * <p>
+ * A deadline can be shared by many solves, for example all boards of one request, and cancel() can be called from any
+ * thread. A thread solving many boards one at a time can also reuse one deadline and restart it for every board.
+ */
+public class SolveDeadline {
+
+    private long deadlineNanos;
+    private boolean hasTimeLimit;
+    private volatile boolean cancelled;
+
+    private SolveDeadline(long deadlineNanos, boolean hasTimeLimit) {
+        this.deadlineNanos = deadlineNanos;
+        this.hasTimeLimit = hasTimeLimit;
+    }
+
+    /**
+     * @param time the time the solve may take from now
+     * @param unit the unit of time
+     * @return a deadline that expires after time or then it is cancelled
+     */
+    public static SolveDeadline after(long time, TimeUnit unit) {
+        return new SolveDeadline(System.nanoTime() + unit.toNanos(time), true);
+    }
+
+    /**
+     * @return a deadline without a time limit that only expires then it is cancelled
+     */
+    public static SolveDeadline cancellable() {
+        return new SolveDeadline(0, false);
+    }
+
+    /**
+     * Sets the time limit to time from now and undoes any cancel(), so the deadline can be used for the next solve
+     * without creating a new one. Must only be called by the thread that solves with the deadline and not during a
+     * solve.
+     *
+     * @param time the time the solve may take from now
+     * @param unit the unit of time
+     */
+    public void restart(long time, TimeUnit unit) {
+        deadlineNanos = System.nanoTime() + unit.toNanos(time);
+        hasTimeLimit = true;
+        cancelled = false;
+    }
+
+    /**
+     * Makes the deadline expire now
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if cancel() has been called, also if the time ran out before that
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true if the time is up or the deadline has been cancelled. Costs a volatile read and a System.nanoTime()
+     */
+    public boolean isExpired() {
+        return cancelled || (hasTimeLimit && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    /**
+     * @return the nanoseconds left until the deadline, Long.MAX_VALUE if it has no time limit and 0 if it has expired
+     */
+    public long remainingNanos() {
+        if (cancelled) {
+            return 0;
+        }
+        if (!hasTimeLimit) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+}
@@ -0,0 +1,19 @@
+package main.java.SodukuSolver;
+
+/**
+ * Receives the progress of a running solve, set with SodukuEngine.setProgressListener. The listener is called from
+ * the thread running solve() every time the engine makes a guess (DancingLinksSolver calls it every
+ * DancingLinksSolver.PROGRESS_INTERVAL guesses), so it must be fast. It is not called for boards the techniques can
+ * solve without guessing, they are solved in a few milliseconds anyway.
+ */
+public interface SolveProgressListener {
+
+    /**
+     * @param guesses     the number of guesses made so far in this solve
+     * @param cellsFilled the number of cells filled in the branch the engine is working on
+     * @param cellCount   the number of cells of the board
+     * @return true to continue solving, false to stop the solve. A stopped solve gets the result SOLVE_FAILED and the
+     * playfield is left as it was before the solve.
+     */
+    boolean progress(long guesses, int cellsFilled, int cellCount);
+}
@@ -0,0 +1,228 @@
+package main.java.SodukuSolver;
+
+/**
+ * Counters of what SodukuSolver did during a solve, collected when SodukuSolver.setCollectStats(true) has been called.
+ * For every Technique the number of times it was run, the number of times it was skipped because nothing had changed
+ * since it last ran, the time spent in it, the number of cells it placed and the number of possibilities it removed is
+ * counted. The TechniquePipeline counts its passes and remembers why it ended. Stats from many solves can be summed with add().
+ */
+public class SolveStats {
+
+    /**
+     * Why the loop running the solving techniques ended
+     * <pre>
+     *     NOT_RUN          the playfield was found invalid before any technique was run
+     *     SOLVED           all cells was filled by the techniques
+     *     STALLED          the techniques made no more progress and guessing was needed
+     *     CONTRADICTION    the techniques proved that the playfield has no solution
+     *     FAKED_PROGRESS   a technique reported progress without changing anything and the solve was aborted
+     *     TIMED_OUT        the SolveDeadline of the solve expired while the techniques was running
+     * </pre>
+     */
+    public enum LoopEndReason {
+        NOT_RUN,
+        SOLVED,
+        STALLED,
+        CONTRADICTION,
+        FAKED_PROGRESS,
+        TIMED_OUT
+    }
+
+    private static final int TECHNIQUES = Technique.values().length;
+
+    private final long[] invocations = new long[TECHNIQUES];
+    private final long[] skips = new long[TECHNIQUES];
+    private final long[] nanos = new long[TECHNIQUES];
+    private final long[] cellsPlaced = new long[TECHNIQUES];
+    private final long[] possibilitiesRemoved = new long[TECHNIQUES];
+    private final long[] loopEndReasons = new long[LoopEndReason.values().length];
+    private long iterations;
+    private long guesses;
+    private long solves;
+    private long cacheHits;
+    private LoopEndReason loopEndReason = LoopEndReason.NOT_RUN;
+
+    /**
+     * Sets all counters to zero
+     */
+    public void reset() {
+        for (int i = 0; i < TECHNIQUES; i++) {
+            invocations[i] = 0;
+            skips[i] = 0;
+            nanos[i] = 0;
+            cellsPlaced[i] = 0;
+            possibilitiesRemoved[i] = 0;
+        }
+        for (int i = 0; i < loopEndReasons.length; i++) {
+            loopEndReasons[i] = 0;
+        }
+        iterations = 0;
+        guesses = 0;
+        solves = 0;
+        cacheHits = 0;
+        loopEndReason = LoopEndReason.NOT_RUN;
+    }
+
+    /**
+     * Adds all counters of other to the counters of this object
+     *
+     * @param other the stats to add
+     */
+    public void add(SolveStats other) {
+        for (int i = 0; i < TECHNIQUES; i++) {
+            invocations[i] += other.invocations[i];
+            skips[i] += other.skips[i];
+            nanos[i] += other.nanos[i];
+            cellsPlaced[i] += other.cellsPlaced[i];
+            possibilitiesRemoved[i] += other.possibilitiesRemoved[i];
+        }
+        for (int i = 0; i < loopEndReasons.length; i++) {
+            loopEndReasons[i] += other.loopEndReasons[i];
+        }
+        iterations += other.iterations;
+        guesses += other.guesses;
+        solves += other.solves;
+        cacheHits += other.cacheHits;
+        loopEndReason = other.loopEndReason;
+    }
+
+    void recordTechnique(Technique technique, long nanoTime, int placed, int removed) {
+        int i = technique.ordinal();
+        invocations[i]++;
+        nanos[i] += nanoTime;
+        cellsPlaced[i] += placed;
+        possibilitiesRemoved[i] += removed;
+    }
+
+    void recordSkip(Technique technique) {
+        skips[technique.ordinal()]++;
+    }
+
+    void recordIterations(int count) {
+        iterations += count;
+    }
+
+    void recordGuess() {
+        guesses++;
+    }
+
+    void recordCacheHit() {
+        cacheHits++;
+    }
+
+    void recordSolve(LoopEndReason reason) {
+        solves++;
+        loopEndReason = reason;
+        loopEndReasons[reason.ordinal()]++;
+    }
+
+    /**
+     * @param technique the technique to get the count for
+     * @return the number of times technique has been run
+     */
+    public long getInvocations(Technique technique) {
+        return invocations[technique.ordinal()];
+    }
+
+    /**
+     * @param technique the technique to get the count for
+     * @return the number of times technique was skipped because the possibilities had not changed since it last ran
+     */
+    public long getSkips(Technique technique) {
+        return skips[technique.ordinal()];
+    }
+
+    /**
+     * @param technique the technique to get the time for
+     * @return the total wall time spent in technique in nanoseconds
+     */
+    public long getNanos(Technique technique) {
+        return nanos[technique.ordinal()];
+    }
+
+    /**
+     * @param technique the technique to get the count for
+     * @return the number of cells technique has filled
+     */
+    public long getCellsPlaced(Technique technique) {
+        return cellsPlaced[technique.ordinal()];
+    }
+
+    /**
+     * @param technique the technique to get the count for
+     * @return the number of possibilities technique has removed, including the ones removed by placing numbers
+     */
+    public long getPossibilitiesRemoved(Technique technique) {
+        return possibilitiesRemoved[technique.ordinal()];
+    }
+
+    /**
+     * @return the number of passes of the technique pipeline, a new pass starts every time a technique makes progress
+     * and the pipeline starts over from the cheapest technique. Includes the passes made after every guess.
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the number of guesses made when the techniques got stuck
+     */
+    public long getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * @return the number of solves these stats are collected from
+     */
+    public long getSolves() {
+        return solves;
+    }
+
+    /**
+     * @return the number of boards taken from a SolutionCache instead of being solved, they are not counted in solves
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return why the technique loop of the last solve ended
+     */
+    public LoopEndReason getLoopEndReason() {
+        return loopEndReason;
+    }
+
+    /**
+     * @param reason a reason for the technique loop to end
+     * @return the number of solves there the technique loop ended because of reason
+     */
+    public long getLoopEndReasonCount(LoopEndReason reason) {
+        return loopEndReasons[reason.ordinal()];
+    }
+
+    /**
+     * @return a table with all counters, one row per technique
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-18s %12s %10s %12s %12s %14s%n", "technique", "invocations", "skipped", "time (us)", "placed", "removed"));
+        for (Technique technique : Technique.values()) {
+            int i = technique.ordinal();
+            sb.append(String.format("%-18s %12d %10d %12d %12d %14d%n", technique.name(), invocations[i], skips[i], nanos[i] / 1000,
+                    cellsPlaced[i], possibilitiesRemoved[i]));
+        }
+        sb.append("solves: ").append(solves).append(", iterations: ").append(iterations)
+                .append(", guesses: ").append(guesses);
+        if (cacheHits > 0) {
+            sb.append(", cache hits: ").append(cacheHits);
+        }
+        sb.append(", loop ended:");
+        for (LoopEndReason reason : LoopEndReason.values()) {
+            if (loopEndReasons[reason.ordinal()] > 0) {
+                sb.append(' ').append(reason.name()).append('=').append(loopEndReasons[reason.ordinal()]);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package main.java.SodukuSolver;
+
+/**
+ * The available soduku solving engines
+ * <pre>
+ *     TECHNIQUES     SodukuSolver, solves like a human would and guesses only when the techniques gets stuck.
+ *     DANCING_LINKS  DancingLinksSolver, a exact cover search that is fast on very hard or almost empty boards.
+ *     AUTO           Picks one of the above for every board depending on how many numbers are given.
+ * </pre>
+ */
+public enum SolverBackend {
+    TECHNIQUES,
+    DANCING_LINKS,
+    AUTO;
+
+    /**
+     * Boards with fewer given numbers than this are solved with DANCING_LINKS by AUTO
+     */
+    public static final int AUTO_DANCING_LINKS_BELOW = 25;
+
+    /**
+     * @return a new engine of this type
+     */
+    public SodukuEngine newEngine() {
+        switch (this) {
+            case TECHNIQUES:
+                return new SodukuSolver();
+            case DANCING_LINKS:
+                return new DancingLinksSolver();
+            default:
+                return new RoutingSolver(AUTO_DANCING_LINKS_BELOW);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+
+/**
+ * A solving technique that can be put in a TechniquePipeline. A technique looks at the possibilities, places the
+ * numbers it can prove and removes the possibilities it can prove wrong.
+ * <p>
+ * A technique may keep buffers between calls so one instance must only be used by one solver at a time.
+ */
+public interface SolvingTechnique {
+
+    /**
+     * @return which technique this is, used for the SolveStats
+     */
+    Technique getTechnique();
+
+    /**
+     * Runs the technique once over the parts of the grid that has changed since changedSince. Cells and units with a
+     * change count not above changedSince looked the same the last time the technique ran and had nothing to find then,
+     * so they are skipped.
+     *
+     * @param possibilities the possibilities to work on
+     * @param changedSince  the change count of possibilities then the technique last ran, -1 to look at everything
+     * @return true if any number was placed or any possibility removed, false otherwise
+     */
+    boolean apply(PossibilityGrid possibilities, long changedSince);
+
+    /**
+     * Runs the technique once over the whole grid
+     *
+     * @param possibilities the possibilities to work on
+     * @return true if any number was placed or any possibility removed, false otherwise
+     */
+    default boolean apply(PossibilityGrid possibilities) {
+        return apply(possibilities, -1);
+    }
+}
@@ -0,0 +1,33 @@
+package main.java.SodukuSolver;
+
+/**
+ * The solving techniques SodukuSolver uses, in the order they are tried. Every technique has a weight used by
+ * DifficultyRating, harder techniques has larger weights.
+ */
+public enum Technique {
+    NAKED_SINGLE(1),
+    HIDDEN_SINGLE(2),
+    LOCKED_CANDIDATES(4),
+    NAKED_PAIRS(6),
+    HIDDEN_PAIRS(8),
+    X_WING(9),
+    NAKED_TRIPLES(10),
+    HIDDEN_TRIPLES(12),
+    SWORDFISH(13),
+    NAKED_QUADS(14),
+    HIDDEN_QUADS(16),
+    JELLYFISH(17);
+
+    private final int weight;
+
+    Technique(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @return how hard the technique is, used to calculate the DifficultyRating score
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
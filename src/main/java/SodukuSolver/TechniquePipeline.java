@@ -0,0 +1,141 @@
+package main.java.SodukuSolver;
+
+import main.java.SodukuUtils.PossibilityGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs a list of solving techniques until none of them can make any more progress. The techniques should be ordered
+ * from the cheapest to the most expensive one.
+ * <p>
+ * The cheapest technique is run until it stalls, then the next one is tried. As soon as a technique makes progress the
+ * pipeline starts over from the cheapest technique again, so the expensive techniques are only run when all the
+ * cheaper ones are stuck. A technique is skipped if the possibilities has not changed since it last ran, running it
+ * again would not find anything new. When it is run it is told the change count from its last run so it only needs to
+ * look at the cells, rows, columns and squares that has changed since then.
+ * <p>
+ * A pipeline remembers when each technique last ran, also between runs on the same PossibilityGrid, so like the
+ * techniques one instance must only be used by one solver at a time.
+ */
+public class TechniquePipeline {
+
+    private final SolvingTechnique[] techniques;
+    private final long[] lastRun;
+    private PossibilityGrid lastPossibilities;
+
+    /**
+     * @param techniques the techniques to run, cheapest first
+     */
+    public TechniquePipeline(List<SolvingTechnique> techniques) {
+        this.techniques = techniques.toArray(new SolvingTechnique[0]);
+        lastRun = new long[this.techniques.length];
+    }
+
+    /**
+     * @return a new instance of every technique SodukuSolver uses by default, cheapest first
+     */
+    public static List<SolvingTechnique> defaultTechniques() {
+        return new ArrayList<>(Arrays.asList(
+                new NakedSingles(),
+                new HiddenSingles(),
+                new LockedCandidates(),
+                new NakedPairs(),
+                new HiddenPairs(),
+                new Fish(2),
+                new NakedSubsets(3),
+                new HiddenSubsets(3),
+                new Fish(3),
+                new NakedSubsets(4),
+                new HiddenSubsets(4),
+                new Fish(4)));
+    }
+
+    /**
+     * @return the techniques of this pipeline in the order they are tried
+     */
+    public List<SolvingTechnique> getTechniques() {
+        return new ArrayList<>(Arrays.asList(techniques));
+    }
+
+    /**
+     * Runs the techniques on possibilities until all cells are filled or none of the techniques makes any progress.
+     *
+     * @param possibilities the possibilities to work on
+     * @param stats         where to record what the techniques did, null to not record anything
+     * @param rating        where to count the techniques that made progress, null to not count them
+     * @param deadline      checked before every technique is run, the run ends early when it has expired. null for no
+     *                      limit
+     * @return false if a technique reported progress without changing anything and the run was aborted, true otherwise
+     * (also if the deadline expired)
+     */
+    boolean run(PossibilityGrid possibilities, SolveStats stats, DifficultyRating rating, SolveDeadline deadline) {
+        if (possibilities != lastPossibilities) {
+            // The change counts of another grid says nothing about this one
+            for (int i = 0; i < techniques.length; i++) {
+                lastRun[i] = -1;
+            }
+            lastPossibilities = possibilities;
+        }
+        int passes = 1;
+        int index = 0;
+        int cellCount = possibilities.getUnits().getCellCount();
+        while (index < techniques.length && possibilities.getCellsFilled() < cellCount) {
+            long changeCount = possibilities.getChangeCount();
+            if (lastRun[index] == changeCount) {
+                if (stats != null) {
+                    stats.recordSkip(techniques[index].getTechnique());
+                }
+                index++;
+                continue;
+            }
+            if (deadline != null && deadline.isExpired()) {
+                break;
+            }
+            long changedSince = lastRun[index];
+            lastRun[index] = changeCount;
+
+            if (!runTechnique(techniques[index], possibilities, changedSince, stats)) {
+                index++;
+                continue;
+            }
+            if (possibilities.getChangeCount() == changeCount) {
+                // Locked looping with faked progress, starting over would run the same techniques forever
+                if (stats != null) {
+                    stats.recordIterations(passes);
+                }
+                return false;
+            }
+            if (rating != null) {
+                rating.recordUse(techniques[index].getTechnique());
+            }
+            index = 0;
+            passes++;
+        }
+        if (stats != null) {
+            stats.recordIterations(passes);
+        }
+        return true;
+    }
+
+    /**
+     * Runs one technique and records what it did if stats are collected
+     *
+     * @return the value returned by the technique
+     */
+    private static boolean runTechnique(SolvingTechnique technique, PossibilityGrid possibilities, long changedSince,
+                                        SolveStats stats) {
+        if (stats == null) {
+            return technique.apply(possibilities, changedSince);
+        }
+        int cellsFilledBefore = possibilities.getCellsFilled();
+        int possibilitiesBefore = possibilities.countPossibilities();
+        long startTime = System.nanoTime();
+        boolean madeProgress = technique.apply(possibilities, changedSince);
+        long time = System.nanoTime() - startTime;
+        stats.recordTechnique(technique.getTechnique(), time, possibilities.getCellsFilled() - cellsFilledBefore,
+                possibilitiesBefore - possibilities.countPossibilities());
+        return madeProgress;
+    }
+}
@@ -0,0 +1,325 @@
+package main.java.SodukuUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps a soduku board to a representative form that is the same for most boards that are copies of each other with
+ * the numbers relabelled, the board transposed (or rotated) or bands, stacks, rows within a band or columns within a
+ * stack swapped. The transformation is remembered so a solution of the representative form can be mapped back to the
+ * orientation and numbers of the original board.
+ * <p>
+ * Trying every transformation is far too slow (over three million before relabelling on a 9x9 board) so the rows and
+ * columns are first sorted by signatures that does not change under the transformations: the number of given numbers
+ * in them and in the lines crossing them. Only the orders of rows and columns with equal signatures are tried, at most
+ * MAX_ORDERS of them for the rows and for the columns of each of the two orientations, and the numbers are relabelled
+ * in the order they first appear. The smallest of the tried boards is the form.
+ * <p>
+ * If a board has more ties than that, two copies of it can get different forms. That only costs a cache miss, the
+ * form and its transformation are always correct for the board it was made from.
+ */
+public class CanonicalForm {
+
+    /**
+     * The largest number of row orders and column orders tried per orientation
+     */
+    public static final int MAX_ORDERS = 16;
+
+    private final int size;
+    private final boolean transposed;
+    // Row i of the form is row rowOrder[i] of the (transposed) board, the same for columns
+    private final int[] rowOrder;
+    private final int[] colOrder;
+    // Number n of the board is number toForm[n] in the form, 0 is always 0
+    private final int[] toForm;
+    private final int[] fromForm;
+    private final byte[] cells;
+
+    private CanonicalForm(int size, boolean transposed, int[] rowOrder, int[] colOrder, int[] toForm, byte[] cells) {
+        this.size = size;
+        this.transposed = transposed;
+        this.rowOrder = rowOrder;
+        this.colOrder = colOrder;
+        this.toForm = toForm;
+        this.cells = cells;
+        fromForm = new int[toForm.length];
+        for (int number = 0; number < toForm.length; number++) {
+            fromForm[toForm[number]] = number;
+        }
+    }
+
+    /**
+     * Finds the form of board
+     *
+     * @param board a valid board of a supported size, see SodukuUnits.forPlayfield
+     * @return the form of board
+     */
+    public static CanonicalForm of(int[][] board) {
+        int size = board.length;
+        int boxSize = SodukuUnits.forBoardSize(size).getBoxSize();
+
+        // The board and the transposed board as flat arrays, views[1][r * size + c] = board[c][r]
+        int[][] views = new int[2][size * size];
+        int[] rowCount = new int[size];
+        int[] colCount = new int[size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int value = board[r][c];
+                views[0][r * size + c] = value;
+                views[1][c * size + r] = value;
+                if (value != 0) {
+                    rowCount[r]++;
+                    colCount[c]++;
+                }
+            }
+        }
+        // The rows of the board are the columns of the transposed board and the other way around
+        List<int[]> rowOrders = lineOrders(views[0], rowCount, colCount, boxSize);
+        List<int[]> colOrders = lineOrders(views[1], colCount, rowCount, boxSize);
+
+        byte[] best = null;
+        byte[] candidate = new byte[size * size];
+        int[] labels = new int[size + 1];
+        int bestView = 0;
+        int[] bestRows = null;
+        int[] bestCols = null;
+        for (int view = 0; view < 2; view++) {
+            for (int[] rows : view == 0 ? rowOrders : colOrders) {
+                for (int[] cols : view == 0 ? colOrders : rowOrders) {
+                    if (relabel(views[view], rows, cols, labels, candidate, best)) {
+                        byte[] swap = best == null ? new byte[candidate.length] : best;
+                        best = candidate;
+                        candidate = swap;
+                        bestView = view;
+                        bestRows = rows;
+                        bestCols = cols;
+                    }
+                }
+            }
+        }
+
+        // Relabel the winner again to get the labels, numbers not on the board gets the labels left in increasing order
+        relabel(views[bestView], bestRows, bestCols, labels, candidate, null);
+        int next = 0;
+        for (int number = 1; number <= size; number++) {
+            next = Math.max(next, labels[number]);
+        }
+        for (int number = 1; number <= size; number++) {
+            if (labels[number] == 0) {
+                labels[number] = ++next;
+            }
+        }
+        return new CanonicalForm(size, bestView == 1, bestRows, bestCols, labels, best);
+    }
+
+    /**
+     * Builds the board with the given row and column order and relabels the numbers in the order they appear. Stops
+     * early if the result is larger than best.
+     *
+     * @param view      the board (or the transposed board) as a flat array
+     * @param labels    gets the label of every number found
+     * @param candidate gets the relabelled board
+     * @param best      the smallest board so far or null
+     * @return true if the result written to candidate is smaller than best (or best is null)
+     */
+    private static boolean relabel(int[] view, int[] rows, int[] cols, int[] labels, byte[] candidate, byte[] best) {
+        Arrays.fill(labels, 0);
+        int size = rows.length;
+        int next = 0;
+        int compared = best == null ? -1 : 0;
+        int i = 0;
+        for (int r : rows) {
+            int rowStart = r * size;
+            for (int c : cols) {
+                int value = view[rowStart + c];
+                int label = 0;
+                if (value != 0) {
+                    if (labels[value] == 0) {
+                        labels[value] = ++next;
+                    }
+                    label = labels[value];
+                }
+                if (compared == 0) {
+                    if (label > best[i]) {
+                        return false;
+                    }
+                    if (label < best[i]) {
+                        compared = -1;
+                    }
+                }
+                candidate[i++] = (byte) label;
+            }
+        }
+        return compared < 0;
+    }
+
+    /**
+     * Sorts the rows of the board by bands and by rows within the bands using signatures that are the same for all
+     * copies of the board, and lists the orders there rows with equal signatures are swapped.
+     *
+     * @param view       the board as a flat array, the transposed board to sort the columns
+     * @param lineCount  the number of given numbers on every row
+     * @param crossCount the number of given numbers in every column
+     * @return up to MAX_ORDERS row orders
+     */
+    private static List<int[]> lineOrders(int[] view, int[] lineCount, int[] crossCount, int boxSize) {
+        int size = lineCount.length;
+        long[] lineKeys = new long[size];
+        long[] bandKeys = new long[boxSize];
+        for (int r = 0; r < size; r++) {
+            long crossSum = 0;
+            for (int c = 0; c < size; c++) {
+                if (view[r * size + c] != 0) {
+                    crossSum += crossCount[c];
+                }
+            }
+            long key = (long) lineCount[r] << 32 | crossSum;
+            lineKeys[r] = key;
+            // Sum and sum of squares, the same for every order of the rows in the band
+            bandKeys[r / boxSize] += key * 1_000_003L + key * key;
+        }
+
+        List<int[]> bandOrders = tiedOrders(sortedByKey(identity(boxSize, 0), bandKeys), bandKeys, MAX_ORDERS);
+        List<List<int[]>> rowOrdersOfBand = new ArrayList<>();
+        for (int band = 0; band < boxSize; band++) {
+            int[] rows = sortedByKey(identity(boxSize, band * boxSize), lineKeys);
+            rowOrdersOfBand.add(tiedOrders(rows, lineKeys, MAX_ORDERS));
+        }
+
+        List<int[]> orders = new ArrayList<>();
+        for (int[] bands : bandOrders) {
+            combine(bands, rowOrdersOfBand, 0, new int[size], boxSize, orders);
+            if (orders.size() >= MAX_ORDERS) {
+                break;
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Adds every combination of row orders of the bands in the band order bands to orders, until there are MAX_ORDERS
+     */
+    private static void combine(int[] bands, List<List<int[]>> rowOrdersOfBand, int position, int[] order, int boxSize,
+                                List<int[]> orders) {
+        if (orders.size() >= MAX_ORDERS) {
+            return;
+        }
+        if (position == bands.length) {
+            orders.add(order.clone());
+            return;
+        }
+        for (int[] rows : rowOrdersOfBand.get(bands[position])) {
+            System.arraycopy(rows, 0, order, position * boxSize, boxSize);
+            combine(bands, rowOrdersOfBand, position + 1, order, boxSize, orders);
+        }
+    }
+
+    /**
+     * @return the numbers first to first + count - 1
+     */
+    private static int[] identity(int count, int first) {
+        int[] items = new int[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = first + i;
+        }
+        return items;
+    }
+
+    /**
+     * Sorts items by keys[item], largest key first. Items with equal keys keeps their order.
+     */
+    private static int[] sortedByKey(int[] items, long[] keys) {
+        for (int i = 1; i < items.length; i++) {
+            int item = items[i];
+            int j = i - 1;
+            while (j >= 0 && keys[items[j]] < keys[item]) {
+                items[j + 1] = items[j];
+                j--;
+            }
+            items[j + 1] = item;
+        }
+        return items;
+    }
+
+    /**
+     * Lists the orders of the sorted items there items with equal keys are swapped, up to max orders
+     */
+    private static List<int[]> tiedOrders(int[] sorted, long[] keys, int max) {
+        List<int[]> orders = new ArrayList<>();
+        permuteTies(sorted, keys, 0, new int[sorted.length], new boolean[sorted.length], orders, max);
+        return orders;
+    }
+
+    private static void permuteTies(int[] sorted, long[] keys, int position, int[] order, boolean[] used,
+                                    List<int[]> orders, int max) {
+        if (orders.size() >= max) {
+            return;
+        }
+        if (position == sorted.length) {
+            orders.add(order.clone());
+            return;
+        }
+        long key = keys[sorted[position]];
+        for (int i = 0; i < sorted.length; i++) {
+            if (!used[i] && keys[sorted[i]] == key) {
+                used[i] = true;
+                order[position] = sorted[i];
+                permuteTies(sorted, keys, position + 1, order, used, orders, max);
+                used[i] = false;
+            }
+        }
+    }
+
+    /**
+     * @return the number of rows of the board
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the cells of the form row by row, must not be modified
+     */
+    public byte[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Transforms a board of the same orientation and numbers as the board this form was made from, for example a
+     * solution of it, the same way the board was transformed to this form
+     *
+     * @param board a board of the size of the form
+     * @return the cells of the transformed board row by row
+     */
+    public byte[] toForm(int[][] board) {
+        byte[] ret = new byte[size * size];
+        int i = 0;
+        for (int r : rowOrder) {
+            for (int c : colOrder) {
+                ret[i++] = (byte) toForm[transposed ? board[c][r] : board[r][c]];
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Transforms a board of this form back to the orientation and numbers of the board the form was made from
+     *
+     * @param formCells the cells row by row of a board in this form, for example a solution of it
+     * @param target    a board of the size of the form to write the result to
+     */
+    public void fromForm(byte[] formCells, int[][] target) {
+        int i = 0;
+        for (int r : rowOrder) {
+            for (int c : colOrder) {
+                int value = fromForm[formCells[i++]];
+                if (transposed) {
+                    target[c][r] = value;
+                } else {
+                    target[r][c] = value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package main.java.SodukuUtils;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of what numbers can be placed in each cell of a soduku board, 9x9 by default but 4x4, 16x16 and 25x25
+ * boards are also supported.
+ * <p>
+ * The board is stored as a flat array of cells (index = row * size + column). Every cell has a mask where bit (n - 1)
+ * is set if the number n still is a possibility in that cell. Filled cells always have the mask 0.
+ * For every row, column and square a mask of the numbers already placed in it is also kept up to date.
+ * The rows, columns, squares and peers of the cells are looked up in the SodukuUnits tables, so the solving techniques
+ * can read any unit straight from this grid with getPossible(cell) without copying it.
+ * <p>
+ * A change counter is increased on every change so users can tell if the grid has changed since they last looked at it.
+ * Every cell and every row, column and square also remembers the value of the counter at its last change, so a solving
+ * technique can look at only the parts of the grid that has changed since it last ran.
+ * <p>
+ * Every change is also written to a trail so it can be undone. checkpoint() returns the current length of the trail
+ * and rollback(checkpoint) undoes the changes made after it in reverse order, so going back costs as much as the
+ * changes made since the checkpoint and not a copy of the whole grid. Checkpoints can be nested, a search saves one
+ * before every guess. load() and copyFrom() empties the trail.
+ * None of the methods that changes the state allocates any memory.
+ */
+public class PossibilityGrid {
+
+    /**
+     * Mask with all nine numbers of a 9x9 board set, use getAllMask() for other board sizes
+     */
+    public static final int ALL = 0x1FF;
+
+    private final SodukuUnits units;
+    private final int size;
+    private final int cellCount;
+    private final int unitCount;
+    private final int all;
+    private final int[] possible;
+    private final int[] values;
+    private final int[] unitPlaced;
+    private int cellsFilled;
+    private long changeCount;
+    private final long[] cellChanged;
+    private final long[] unitChanged;
+    // Two ints per change: the cell and the mask it had before, or ~cell and 0 for a placed number
+    private int[] trail;
+    private int trailLength;
+
+    /**
+     * Creates a grid for a 9x9 board
+     */
+    public PossibilityGrid() {
+        this(SodukuUnits.STANDARD);
+    }
+
+    /**
+     * Creates a grid for the board size units describes
+     *
+     * @param units the tables of the board size, from SodukuUnits.forBoardSize
+     */
+    public PossibilityGrid(SodukuUnits units) {
+        this.units = units;
+        size = units.getSize();
+        cellCount = units.getCellCount();
+        unitCount = units.getUnitCount();
+        all = (1 << size) - 1;
+        possible = new int[cellCount];
+        values = new int[cellCount];
+        unitPlaced = new int[unitCount];
+        cellChanged = new long[cellCount];
+        unitChanged = new long[unitCount];
+        // Along one path every possibility is removed at most once and every cell is placed at most once, so the
+        // trail never has to grow
+        trail = new int[2 * cellCount * (size + 2)];
+    }
+
+    /**
+     * Resets the grid and fills it with the numbers in playfield, the possibilities of every empty cell is set to all
+     * numbers not already placed in the cell's row, column or square.
+     *
+     * @param playfield a int-array of the size of this grid containing values between 0 and size. 0 means the value is
+     *                  not given initially
+     * @return false if a number appears more than once in a row, column or square, true otherwise
+     */
+    public boolean load(int[][] playfield) {
+        boolean noDuplicates = true;
+        cellsFilled = 0;
+        trailLength = 0;
+        for (int unit = 0; unit < unitCount; unit++) {
+            unitPlaced[unit] = 0;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            int value = playfield[units.rowOf(cell)][units.colOf(cell)];
+            values[cell] = value;
+            if (value != 0) {
+                int bit = bit(value);
+                if ((placedAround(cell) & bit) != 0) {
+                    noDuplicates = false;
+                }
+                unitPlaced[units.cellUnit(cell, SodukuUnits.SQUARE)] |= bit;
+                unitPlaced[units.cellUnit(cell, SodukuUnits.COLUMN)] |= bit;
+                unitPlaced[units.cellUnit(cell, SodukuUnits.ROW)] |= bit;
+                cellsFilled++;
+            }
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            possible[cell] = values[cell] != 0 ? 0 : all & ~placedAround(cell);
+        }
+        markAllChanged();
+        return noDuplicates;
+    }
+
+    /**
+     * @return mask of the numbers placed in the row, column and square of cell
+     */
+    private int placedAround(int cell) {
+        return unitPlaced[units.cellUnit(cell, SodukuUnits.SQUARE)]
+                | unitPlaced[units.cellUnit(cell, SodukuUnits.COLUMN)]
+                | unitPlaced[units.cellUnit(cell, SodukuUnits.ROW)];
+    }
+
+    /**
+     * Makes this grid an exact copy of other. Only the cells that was different in this grid are marked as changed.
+     *
+     * @param other the grid to copy, must be of the same size as this grid
+     */
+    public void copyFrom(PossibilityGrid other) {
+        changeCount++;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (possible[cell] != other.possible[cell] || values[cell] != other.values[cell]) {
+                possible[cell] = other.possible[cell];
+                values[cell] = other.values[cell];
+                markChanged(cell);
+            }
+        }
+        System.arraycopy(other.unitPlaced, 0, unitPlaced, 0, unitCount);
+        cellsFilled = other.cellsFilled;
+        trailLength = 0;
+    }
+
+    /**
+     * Marks the current state so it can be returned to with rollback
+     *
+     * @return the checkpoint to give rollback, only valid until the grid is loaded, copied or rolled back to an earlier
+     * checkpoint
+     */
+    public int checkpoint() {
+        return trailLength;
+    }
+
+    /**
+     * Undoes every change made after checkpoint was taken, the cells that are changed back are marked as changed.
+     *
+     * @param checkpoint a value returned by checkpoint()
+     */
+    public void rollback(int checkpoint) {
+        if (trailLength == checkpoint) {
+            return;
+        }
+        changeCount++;
+        while (trailLength > checkpoint) {
+            trailLength -= 2;
+            int cell = trail[trailLength];
+            if (cell < 0) {
+                cell = ~cell;
+                int bit = bit(values[cell]);
+                values[cell] = 0;
+                unitPlaced[units.cellUnit(cell, SodukuUnits.SQUARE)] &= ~bit;
+                unitPlaced[units.cellUnit(cell, SodukuUnits.COLUMN)] &= ~bit;
+                unitPlaced[units.cellUnit(cell, SodukuUnits.ROW)] &= ~bit;
+                cellsFilled--;
+            } else {
+                possible[cell] = trail[trailLength + 1];
+            }
+            markChanged(cell);
+        }
+    }
+
+    /**
+     * Adds a change of cell to the trail
+     *
+     * @param cell    the cell number or ~cell for a placed number
+     * @param oldMask the possibilities of the cell before the change
+     */
+    private void record(int cell, int oldMask) {
+        if (trailLength == trail.length) {
+            // Only if numbers are placed in filled cells, the bound in the constructor holds otherwise
+            trail = Arrays.copyOf(trail, trail.length * 2);
+        }
+        trail[trailLength++] = cell;
+        trail[trailLength++] = oldMask;
+    }
+
+    /**
+     * Writes the placed numbers into playfield, empty cells are written as 0
+     *
+     * @param playfield a int-array of the size of this grid to write to
+     */
+    public void copyValuesTo(int[][] playfield) {
+        for (int r = 0; r < size; r++) {
+            System.arraycopy(values, r * size, playfield[r], 0, size);
+        }
+    }
+
+    /**
+     * Places value in the cell [r, c] and removes value as a possibility from the row, column and square of the cell.
+     * All possibilities of cell [r, c] is also removed.
+     *
+     * @param r     the row of the cell
+     * @param c     the column of the cell
+     * @param value the number to place
+     */
+    public void place(int r, int c, int value) {
+        place(r * size + c, value);
+    }
+
+    /**
+     * Same as place(r, c, value) for the cell with the number cell (row * size + column)
+     *
+     * @param cell  the cell number
+     * @param value the number to place
+     */
+    public void place(int cell, int value) {
+        int bit = bit(value);
+        record(cell, possible[cell]);
+        record(~cell, 0);
+        values[cell] = value;
+        possible[cell] = 0;
+        unitPlaced[units.cellUnit(cell, SodukuUnits.SQUARE)] |= bit;
+        unitPlaced[units.cellUnit(cell, SodukuUnits.COLUMN)] |= bit;
+        unitPlaced[units.cellUnit(cell, SodukuUnits.ROW)] |= bit;
+        cellsFilled++;
+        changeCount++;
+        markChanged(cell);
+
+        // Only the peers that had value are marked as changed
+        for (int peer : units.peers(cell)) {
+            if ((possible[peer] & bit) != 0) {
+                record(peer, possible[peer]);
+                possible[peer] &= ~bit;
+                markChanged(peer);
+            }
+        }
+    }
+
+    /**
+     * Sets the change count of a cell and its row, column and square to the current value of the change counter
+     */
+    private void markChanged(int cell) {
+        cellChanged[cell] = changeCount;
+        unitChanged[units.cellUnit(cell, SodukuUnits.SQUARE)] = changeCount;
+        unitChanged[units.cellUnit(cell, SodukuUnits.COLUMN)] = changeCount;
+        unitChanged[units.cellUnit(cell, SodukuUnits.ROW)] = changeCount;
+    }
+
+    /**
+     * Increases the change counter and marks every cell and unit as changed
+     */
+    private void markAllChanged() {
+        changeCount++;
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellChanged[cell] = changeCount;
+        }
+        for (int unit = 0; unit < unitCount; unit++) {
+            unitChanged[unit] = changeCount;
+        }
+    }
+
+    /**
+     * Removes value as a possibility in the cell [r, c]. Safe to call even if value is not a possibility.
+     *
+     * @param r     the row of the cell
+     * @param c     the column of the cell
+     * @param value the number to remove
+     * @return true if value was a possibility before the call, false otherwise
+     */
+    public boolean removePossibility(int r, int c, int value) {
+        return removePossibilities(r * size + c, bit(value));
+    }
+
+    /**
+     * Removes all numbers in mask as possibilities in the cell [r, c].
+     *
+     * @param r    the row of the cell
+     * @param c    the column of the cell
+     * @param mask the numbers to remove, bit (n - 1) for the number n
+     * @return true if any possibility was removed, false otherwise
+     */
+    public boolean removePossibilities(int r, int c, int mask) {
+        return removePossibilities(r * size + c, mask);
+    }
+
+    /**
+     * Same as removePossibilities(r, c, mask) for the cell with the number cell (row * size + column)
+     *
+     * @param cell the cell number
+     * @param mask the numbers to remove, bit (n - 1) for the number n
+     * @return true if any possibility was removed, false otherwise
+     */
+    public boolean removePossibilities(int cell, int mask) {
+        int before = possible[cell];
+        if ((before & mask) == 0) {
+            return false;
+        }
+        record(cell, before);
+        possible[cell] = before & ~mask;
+        changeCount++;
+        markChanged(cell);
+        return true;
+    }
+
+    /**
+     * Checks if the grid has reached a state there it can not be completed. That is if any empty cell has no
+     * possibilities left or if a number can no longer be placed anywhere in a row, column or square missing it.
+     *
+     * @return true if the grid can not be solved from its current state, false if it might be solvable
+     */
+    public boolean hasContradiction() {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (values[cell] == 0 && possible[cell] == 0) {
+                return true;
+            }
+        }
+        for (int unit = 0; unit < unitCount; unit++) {
+            int unitPossible = unitPlaced[unit];
+            for (int cell : units.unitCells(unit)) {
+                unitPossible |= possible[cell];
+            }
+            if (unitPossible != all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the total number of possibilities in all cells
+     */
+    public int countPossibilities() {
+        int count = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            count += Integer.bitCount(possible[cell]);
+        }
+        return count;
+    }
+
+    /**
+     * @return the tables of the rows, columns and squares of this grid
+     */
+    public SodukuUnits getUnits() {
+        return units;
+    }
+
+    /**
+     * @return mask with all numbers of the board size set
+     */
+    public int getAllMask() {
+        return all;
+    }
+
+    /**
+     * @param r the row of the cell
+     * @param c the column of the cell
+     * @return the mask of possibilities in cell [r, c], 0 if the cell is filled
+     */
+    public int getPossible(int r, int c) {
+        return possible[r * size + c];
+    }
+
+    /**
+     * @param cell the cell number (row * size + column)
+     * @return the mask of possibilities in the cell, 0 if the cell is filled
+     */
+    public int getPossible(int cell) {
+        return possible[cell];
+    }
+
+    /**
+     * @param r the row of the cell
+     * @param c the column of the cell
+     * @return the number placed in cell [r, c] or 0 if it is empty
+     */
+    public int getValue(int r, int c) {
+        return values[r * size + c];
+    }
+
+    /**
+     * @param cell the cell number (row * size + column)
+     * @return the number placed in the cell or 0 if it is empty
+     */
+    public int getValue(int cell) {
+        return values[cell];
+    }
+
+    /**
+     * @param r the row
+     * @return mask of the numbers placed on row r
+     */
+    public int getRowPlaced(int r) {
+        return unitPlaced[units.unit(SodukuUnits.ROW, r)];
+    }
+
+    /**
+     * @param c the column
+     * @return mask of the numbers placed in column c
+     */
+    public int getColPlaced(int c) {
+        return unitPlaced[units.unit(SodukuUnits.COLUMN, c)];
+    }
+
+    /**
+     * @param sq the square number
+     * @return mask of the numbers placed in square sq
+     */
+    public int getSqPlaced(int sq) {
+        return unitPlaced[units.unit(SodukuUnits.SQUARE, sq)];
+    }
+
+    /**
+     * @param unit the unit number, see SodukuUnits
+     * @return mask of the numbers placed in the unit
+     */
+    public int getUnitPlaced(int unit) {
+        return unitPlaced[unit];
+    }
+
+    /**
+     * @return the number of cells that has a number in them
+     */
+    public int getCellsFilled() {
+        return cellsFilled;
+    }
+
+    /**
+     * The change counter is increased every time a number is placed, a possibility is removed or the whole grid is
+     * loaded or copied. It never decreases, not even when an older state is copied back.
+     *
+     * @return the current value of the change counter
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * @param cell the cell number (row * size + column)
+     * @return the value of the change counter then the cell last changed
+     */
+    public long getCellChangeCount(int cell) {
+        return cellChanged[cell];
+    }
+
+    /**
+     * @param unit the unit number, see SodukuUnits
+     * @return the value of the change counter then any cell in the unit last changed
+     */
+    public long getUnitChangeCount(int unit) {
+        return unitChanged[unit];
+    }
+
+    /**
+     * @param value a number between 1 and the board size
+     * @return the mask bit representing value
+     */
+    public static int bit(int value) {
+        return 1 << (value - 1);
+    }
+
+    /**
+     * @param mask a mask of possibilities
+     * @return the lowest number in mask, undefined if mask is 0
+     */
+    public static int lowestNumber(int mask) {
+        return Integer.numberOfTrailingZeros(mask) + 1;
+    }
+}
@@ -0,0 +1,144 @@
+package main.java.SodukuUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes soduku boards in the common one-line format there the 81 cells are written row by row as digits.
+ * Empty cells are written as '0' or '.' when reading, '0' is used when writing.
+ * <p>
+ * Lines of 16 (4x4), 256 (16x16) and 625 (25x25) cells are also read, on those boards the numbers 10 and up are written
+ * as letters, 'A' for 10, 'B' for 11 and so on. Both upper and lower case letters are accepted when reading.
+ */
+public class SodukuLineFormat {
+
+    /**
+     * Gets the board size of line without parsing it, leading and trailing whitespace is ignored
+     *
+     * @param line the line to check
+     * @return the number of rows of the board on the line or 0 if the length is not the length of a board
+     */
+    public static int boardSize(CharSequence line) {
+        int start = 0;
+        int end = line.length();
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        return boardSizeOfLength(end - start);
+    }
+
+    /**
+     * @param length the length of a line without leading and trailing whitespace
+     * @return the number of rows of a board written with length characters or 0 if no board has that length
+     */
+    public static int boardSizeOfLength(int length) {
+        for (int boxSize = 2; boxSize <= SodukuUnits.MAX_BOX_SIZE; boxSize++) {
+            int size = boxSize * boxSize;
+            if (size * size == length) {
+                return size;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses a board from line into target. Leading and trailing whitespace is ignored.
+     *
+     * @param line   the line to parse
+     * @param target a int[9][9] to put the board in, it is not changed if false is returned. The size of target decides
+     *               the size of the board to read
+     * @return false if the line is not 81 (size * size) digits, letters or dots, true otherwise
+     */
+    public static boolean parse(CharSequence line, int[][] target) {
+        int size = target.length;
+        int start = 0;
+        int end = line.length();
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start != size * size) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            int value = charToValue(line.charAt(i));
+            if (value < 0 || value > size) {
+                return false;
+            }
+        }
+        for (int i = 0; i < size * size; i++) {
+            target[i / size][i % size] = charToValue(line.charAt(start + i));
+        }
+        return true;
+    }
+
+    /**
+     * Parses a board from the bytes between start and end of a ASCII buffer into target, the same way as
+     * parse(CharSequence, int[][]) but without making a String of the line first. The position of bytes is not used
+     * or changed.
+     *
+     * @param bytes  the buffer to read from, for example a memory mapped file
+     * @param start  the index of the first character of the board
+     * @param end    the index after the last character of the board, whitespace must already be trimmed away
+     * @param target a int[9][9] to put the board in, it is not changed if false is returned. The size of target decides
+     *               the size of the board to read
+     * @return false if the bytes are not 81 (size * size) digits, letters or dots, true otherwise
+     */
+    public static boolean parse(ByteBuffer bytes, int start, int end, int[][] target) {
+        int size = target.length;
+        if (end - start != size * size) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            int value = charToValue((char) bytes.get(i));
+            if (value < 0 || value > size) {
+                return false;
+            }
+        }
+        int i = start;
+        for (int r = 0; r < size; r++) {
+            int[] row = target[r];
+            for (int c = 0; c < size; c++) {
+                row[c] = charToValue((char) bytes.get(i++));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends board to out as 81 (size * size) digits, empty cells are written as '0' and numbers from 10 as letters
+     *
+     * @param board a int[9][9] containing values between 0 and 9, or a board of another size
+     * @param out   the StringBuilder to append to
+     */
+    public static void append(int[][] board, StringBuilder out) {
+        for (int[] row : board) {
+            for (int value : row) {
+                out.append(value < 10 ? (char) ('0' + value) : (char) ('A' + value - 10));
+            }
+        }
+    }
+
+    /**
+     * @return the number ch stands for, 0 for empty cells or -1 if ch is not a valid character
+     */
+    private static int charToValue(char ch) {
+        if (ch == '.') {
+            return 0;
+        }
+        if (ch >= '0' && ch <= '9') {
+            return ch - '0';
+        }
+        if (ch >= 'A' && ch <= 'Z') {
+            return ch - 'A' + 10;
+        }
+        if (ch >= 'a' && ch <= 'z') {
+            return ch - 'a' + 10;
+        }
+        return -1;
+    }
+}
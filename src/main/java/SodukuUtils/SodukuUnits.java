@@ -0,0 +1,203 @@
+package main.java.SodukuUtils;
+
+/**
+ * Lookup tables describing the rows, columns and squares (units) of a soduku board so the solving code never has to
+ * compute them in its inner loops. Cells are numbered row * size + column and units type * size + number there type
+ * is SQUARE, COLUMN or ROW, the same numbering as the unit loops of the solving techniques use.
+ * <p>
+ * The tables are built once per board size and never changed. The arrays returned by the getters are the tables
+ * themselves, they must not be modified.
+ */
+public class SodukuUnits {
+
+    /**
+     * Unit types, a unit has the number type * size + the number of the square, column or row
+     */
+    public static final int SQUARE = 0;
+    public static final int COLUMN = 1;
+    public static final int ROW = 2;
+
+    /**
+     * The largest supported box size. The possibilities of a cell are kept in a int mask so a board can have at most
+     * 31 numbers, 5 gives 25x25 boards.
+     */
+    public static final int MAX_BOX_SIZE = 5;
+
+    private static final SodukuUnits[] BY_BOX_SIZE = new SodukuUnits[MAX_BOX_SIZE + 1];
+
+    static {
+        for (int boxSize = 2; boxSize <= MAX_BOX_SIZE; boxSize++) {
+            BY_BOX_SIZE[boxSize] = new SodukuUnits(boxSize);
+        }
+    }
+
+    /**
+     * The tables of a normal 9x9 board
+     */
+    public static final SodukuUnits STANDARD = BY_BOX_SIZE[3];
+
+    private final int boxSize;
+    private final int size;
+    private final int[][] unitCells;
+    private final int[][] cellUnits;
+    private final int[][] cellPeers;
+    private final int[] rowOf;
+    private final int[] colOf;
+    private final int[] squareOf;
+
+    /**
+     * Builds the tables of a board made of boxSize x boxSize squares, that is a board with boxSize * boxSize rows.
+     * Use forBoardSize to get tables that are already built.
+     *
+     * @param boxSize the number of rows and columns in a square, 3 for a normal 9x9 board
+     */
+    private SodukuUnits(int boxSize) {
+        this.boxSize = boxSize;
+        size = boxSize * boxSize;
+        int cells = size * size;
+        unitCells = new int[3 * size][size];
+        cellUnits = new int[cells][3];
+        cellPeers = new int[cells][3 * size - 2 * boxSize - 1];
+        rowOf = new int[cells];
+        colOf = new int[cells];
+        squareOf = new int[cells];
+
+        for (int cell = 0; cell < cells; cell++) {
+            int r = cell / size;
+            int c = cell % size;
+            int sq = (r / boxSize) * boxSize + c / boxSize;
+            int indexInSquare = (r % boxSize) * boxSize + c % boxSize;
+            rowOf[cell] = r;
+            colOf[cell] = c;
+            squareOf[cell] = sq;
+            cellUnits[cell][SQUARE] = SQUARE * size + sq;
+            cellUnits[cell][COLUMN] = COLUMN * size + c;
+            cellUnits[cell][ROW] = ROW * size + r;
+            unitCells[SQUARE * size + sq][indexInSquare] = cell;
+            unitCells[COLUMN * size + c][r] = cell;
+            unitCells[ROW * size + r][c] = cell;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            int count = 0;
+            for (int other = 0; other < cells; other++) {
+                if (other != cell && (rowOf[other] == rowOf[cell] || colOf[other] == colOf[cell]
+                        || squareOf[other] == squareOf[cell])) {
+                    cellPeers[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the shared tables for boards with size rows, the tables are only built once per size
+     *
+     * @param size the number of rows of the board, 4, 9, 16 or 25
+     * @return the tables or null if size is not a supported board size
+     */
+    public static SodukuUnits forBoardSize(int size) {
+        for (int boxSize = 2; boxSize <= MAX_BOX_SIZE; boxSize++) {
+            if (boxSize * boxSize == size) {
+                return BY_BOX_SIZE[boxSize];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that playfield is a square board of a supported size with numbers between 0 and its size
+     *
+     * @param playfield the board to check
+     * @return the tables of the board size or null if playfield is not a valid board
+     */
+    public static SodukuUnits forPlayfield(int[][] playfield) {
+        SodukuUnits units = forBoardSize(playfield.length);
+        if (units == null) {
+            return null;
+        }
+        for (int[] row : playfield) {
+            if (row == null || row.length != units.size) {
+                return null;
+            }
+            for (int value : row) {
+                if (value < 0 || value > units.size) {
+                    return null;
+                }
+            }
+        }
+        return units;
+    }
+
+    /**
+     * @return the number of rows and columns in a square
+     */
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * @return the number of rows, columns and squares, also the highest number that can be placed
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of cells on the board
+     */
+    public int getCellCount() {
+        return size * size;
+    }
+
+    /**
+     * @return the number of units on the board, 3 * size
+     */
+    public int getUnitCount() {
+        return 3 * size;
+    }
+
+    /**
+     * @param type      SQUARE, COLUMN or ROW
+     * @param dimOneRow the number of the square, column or row
+     * @return the unit number
+     */
+    public int unit(int type, int dimOneRow) {
+        return type * size + dimOneRow;
+    }
+
+    /**
+     * @param unit a unit number
+     * @return the cells of unit, for squares in reading order
+     */
+    public int[] unitCells(int unit) {
+        return unitCells[unit];
+    }
+
+    /**
+     * @param cell a cell number
+     * @return the other cells sharing a row, column or square with cell, 20 of them on a 9x9 board
+     */
+    public int[] peers(int cell) {
+        return cellPeers[cell];
+    }
+
+    /**
+     * @param cell a cell number
+     * @param type SQUARE, COLUMN or ROW
+     * @return the unit of the given type cell is part of
+     */
+    public int cellUnit(int cell, int type) {
+        return cellUnits[cell][type];
+    }
+
+    public int rowOf(int cell) {
+        return rowOf[cell];
+    }
+
+    public int colOf(int cell) {
+        return colOf[cell];
+    }
+
+    public int squareOf(int cell) {
+        return squareOf[cell];
+    }
+}